@@ -0,0 +1,261 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.service.TalksImportedEvent;
+import com.tedtalks.util.FixedPointScore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Per-speaker aggregates ({@link AuthorStats}) materialized from the {@link TalkColumnStore}.
+ *
+ * Aggregates are primitive arrays indexed by the store's author dictionary id. Like {@link YearlyLeaderboard},
+ * imports only fold in the appended rows and the influence sums are recomputed once when the day changes.
+ */
+@Slf4j
+@Component
+public class AuthorLeaderboard {
+    private static final BigInteger TWO_POW_63 = BigInteger.ONE.shiftLeft(63);
+
+    private final TalkColumnStore talkColumnStore;
+    private Totals totals = new Totals(0);
+    private int foldedRows;
+    private long foldedLastId;
+    private volatile long asOfEpochDay;
+    private volatile boolean loaded;
+    private volatile boolean scoreOverflow;
+    private volatile Snapshot snapshot = new Snapshot(new Totals(0), new String[0], ScoreWeights.DEFAULT.fixedPoint());
+
+    public AuthorLeaderboard(TalkColumnStore talkColumnStore) {
+        this.talkColumnStore = talkColumnStore;
+    }
+
+    /**
+     * True once built from a ready column store whose influence sums all fit fixed point scoring.
+     */
+    public boolean isReady() {
+        return loaded && !scoreOverflow && talkColumnStore.isReady();
+    }
+
+    /**
+     * The n best speakers by the given ranking, best first; ties are broken by author name.
+     * Costs O(authors * log n) over primitive arrays.
+     */
+    public List<AuthorStats> top(AuthorRanking ranking, int n) {
+        if (asOfEpochDay != LocalDate.now().toEpochDay()) {
+            rebuildIfStale();
+        }
+        Snapshot current = snapshot;
+        int authors = current.totals.size;
+        if (n <= 0 || authors == 0) {
+            return List.of();
+        }
+        // Root is the lowest ranked author kept so far
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(n, authors) + 1, (a, b) -> current.compare(ranking, a, b));
+        for (int author = 0; author < authors; author++) {
+            if (current.totals.talkCounts[author] == 0) continue;
+            if (heap.size() < n) {
+                heap.add(author);
+            } else if (current.compare(ranking, author, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(author);
+            }
+        }
+        AuthorStats[] result = new AuthorStats[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = current.stats(heap.poll());
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Runs after the column store has loaded.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        totals = new Totals(0);
+        foldedRows = 0;
+        scoreOverflow = false;
+        asOfEpochDay = LocalDate.now().toEpochDay();
+        foldNewRows();
+        loaded = true;
+        log.info("Materialized statistics for {} authors", totals.size);
+    }
+
+    /**
+     * Runs after the column store has appended the imported rows. Totals of talks whose counts an upsert
+     * changed cannot be folded in, so then everything is recomputed.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTalksImported(TalksImportedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event.rowsUpdated() > 0) {
+            rebuild();
+        } else {
+            foldNewRows();
+        }
+    }
+
+    private synchronized void rebuildIfStale() {
+        if (asOfEpochDay != LocalDate.now().toEpochDay()) {
+            rebuild();
+        }
+    }
+
+    private void foldNewRows() {
+        TalkColumns columns = talkColumnStore.columns();
+        if (!columns.continues(foldedRows, foldedLastId)) {
+            // The store was reloaded with rows moved and may have renumbered its authors
+            totals = new Totals(0);
+            foldedRows = 0;
+            scoreOverflow = false;
+        }
+        LocalDate today = LocalDate.ofEpochDay(asOfEpochDay);
+        int todayEpochMonth = TalkColumns.epochMonth(today);
+        int todayDayOfMonth = today.getDayOfMonth();
+        FixedPointScore.Weights weights = ScoreWeights.DEFAULT.fixedPoint();
+        Totals next = totals.copy();
+        for (int row = foldedRows; row < columns.size(); row++) {
+            long score = 0;
+            try {
+                score = TalkColumnStore.score(columns, row, weights, todayEpochMonth, todayDayOfMonth);
+            } catch (ArithmeticException e) {
+                scoreOverflow = true;
+            }
+            if (!next.add(columns.authorIds[row], columns.views[row], columns.likes[row], score)) {
+                scoreOverflow = true;
+            }
+        }
+        if (scoreOverflow) {
+            log.warn("Influence sums do not fit fixed point, ranking authors in the database until the next rebuild");
+        }
+        totals = next;
+        foldedRows = columns.size();
+        foldedLastId = foldedRows == 0 ? 0 : columns.ids[foldedRows - 1];
+        snapshot = new Snapshot(next, columns.authorNames, weights);
+    }
+
+    /**
+     * Aggregates by author id. Sums of views and likes are kept as {@code high * 2^63 + low}, which cannot
+     * overflow for any realistic number of talks. Influence sums add the unrounded talk scores
+     * ({@link FixedPointScore#weightedSum}) and are rounded once, as the database's SUM is.
+     */
+    private static final class Totals {
+        int size;
+        long[] talkCounts;
+        long[] viewsLow;
+        long[] viewsHigh;
+        long[] likesLow;
+        long[] likesHigh;
+        long[] influence;
+
+        Totals(int capacity) {
+            talkCounts = new long[capacity];
+            viewsLow = new long[capacity];
+            viewsHigh = new long[capacity];
+            likesLow = new long[capacity];
+            likesHigh = new long[capacity];
+            influence = new long[capacity];
+        }
+
+        /**
+         * Copy for the next fold; published snapshots are never written again.
+         */
+        Totals copy() {
+            Totals copy = new Totals(0);
+            copy.size = size;
+            copy.talkCounts = talkCounts.clone();
+            copy.viewsLow = viewsLow.clone();
+            copy.viewsHigh = viewsHigh.clone();
+            copy.likesLow = likesLow.clone();
+            copy.likesHigh = likesHigh.clone();
+            copy.influence = influence.clone();
+            return copy;
+        }
+
+        /**
+         * @return false if the author's influence sum overflowed; the other totals are still added
+         */
+        boolean add(int author, long views, long likes, long score) {
+            if (author >= talkCounts.length) {
+                int capacity = Math.max(Math.max(256, author + 1), talkCounts.length + (talkCounts.length >> 1));
+                talkCounts = Arrays.copyOf(talkCounts, capacity);
+                viewsLow = Arrays.copyOf(viewsLow, capacity);
+                viewsHigh = Arrays.copyOf(viewsHigh, capacity);
+                likesLow = Arrays.copyOf(likesLow, capacity);
+                likesHigh = Arrays.copyOf(likesHigh, capacity);
+                influence = Arrays.copyOf(influence, capacity);
+            }
+            size = Math.max(size, author + 1);
+            talkCounts[author]++;
+            long sum = viewsLow[author] + views;
+            viewsHigh[author] += sum < 0 ? 1 : 0;
+            viewsLow[author] = sum & Long.MAX_VALUE;
+            sum = likesLow[author] + likes;
+            likesHigh[author] += sum < 0 ? 1 : 0;
+            likesLow[author] = sum & Long.MAX_VALUE;
+            try {
+                influence[author] = Math.addExact(influence[author], score);
+                return true;
+            } catch (ArithmeticException e) {
+                return false;
+            }
+        }
+    }
+
+    private record Snapshot(Totals totals, String[] authorNames, FixedPointScore.Weights weights) {
+
+        /**
+         * Positive if author a ranks above author b.
+         */
+        int compare(AuthorRanking ranking, int a, int b) {
+            int result = switch (ranking) {
+                // By the reported, rounded sum, so ties fall to the name as in the database fallback
+                case INFLUENCE -> Long.compare(weights.round(totals.influence[a]), weights.round(totals.influence[b]));
+                case VIEWS -> compareSums(totals.viewsHigh, totals.viewsLow, a, b);
+                case LIKES -> compareSums(totals.likesHigh, totals.likesLow, a, b);
+                case TALKS -> Long.compare(totals.talkCounts[a], totals.talkCounts[b]);
+            };
+            return result != 0 ? result : authorNames[b].compareTo(authorNames[a]);
+        }
+
+        private static int compareSums(long[] high, long[] low, int a, int b) {
+            int result = Long.compare(high[a], high[b]);
+            return result != 0 ? result : Long.compare(low[a], low[b]);
+        }
+
+        AuthorStats stats(int author) {
+            long count = totals.talkCounts[author];
+            BigInteger views = sum(totals.viewsHigh[author], totals.viewsLow[author]);
+            BigInteger likes = sum(totals.likesHigh[author], totals.likesLow[author]);
+            return new AuthorStats(authorNames[author], count, views, likes,
+                    mean(views, count), mean(likes, count),
+                    BigDecimal.valueOf(weights.round(totals.influence[author]), FixedPointScore.SCALE));
+        }
+
+        private static BigInteger sum(long high, long low) {
+            return high == 0 ? BigInteger.valueOf(low) : TWO_POW_63.multiply(BigInteger.valueOf(high)).add(BigInteger.valueOf(low));
+        }
+
+        private static BigDecimal mean(BigInteger total, long count) {
+            return new BigDecimal(total).divide(BigDecimal.valueOf(count), 5, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.exception.BadRequestException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orderings offered by GET /tedtalks/authors, best first.
+ */
+public enum AuthorRanking {
+    INFLUENCE(Comparator.comparing(AuthorStats::influenceScore)),
+    VIEWS(Comparator.comparing(AuthorStats::totalViews)),
+    LIKES(Comparator.comparing(AuthorStats::totalLikes)),
+    TALKS(Comparator.comparingLong(AuthorStats::talkCount));
+
+    private final Comparator<AuthorStats> ascending;
+
+    AuthorRanking(Comparator<AuthorStats> ascending) {
+        this.ascending = ascending;
+    }
+
+    /**
+     * Best first; ties are broken by author name.
+     */
+    public Comparator<AuthorStats> comparator() {
+        return ascending.reversed().thenComparing(AuthorStats::author);
+    }
+
+    public static AuthorRanking of(String name) {
+        for (AuthorRanking ranking : values()) {
+            if (ranking.name().equalsIgnoreCase(name)) {
+                return ranking;
+            }
+        }
+        throw new BadRequestException("Invalid ranking parameters",
+                List.of(Map.of("error", "sortBy must be one of influence, views, likes or talks.")));
+    }
+}
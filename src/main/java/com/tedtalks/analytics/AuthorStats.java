@@ -0,0 +1,12 @@
+package com.tedtalks.analytics;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Aggregates of one speaker. influenceScore is the sum of the influence scores of their talks with
+ * {@link ScoreWeights#DEFAULT}.
+ */
+public record AuthorStats(String author, long talkCount, BigInteger totalViews, BigInteger totalLikes,
+                          BigDecimal meanViews, BigDecimal meanLikes, BigDecimal influenceScore) {
+}
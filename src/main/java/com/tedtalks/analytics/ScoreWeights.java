@@ -0,0 +1,29 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.util.FixedPointScore;
+
+import java.math.BigDecimal;
+
+/**
+ * Influence score weights of one query.
+ */
+public record ScoreWeights(BigDecimal views, BigDecimal likes, BigDecimal engagement, BigDecimal growth) {
+
+    /**
+     * Weights the ranking endpoints use when none are given.
+     */
+    public static final ScoreWeights DEFAULT =
+            new ScoreWeights(new BigDecimal("0.4"), new BigDecimal("0.4"), new BigDecimal("0.1"), new BigDecimal("0.1"));
+
+    public static ScoreWeights of(BigDecimal viewsWeight, BigDecimal likesWeight,
+                                  BigDecimal engagementWeight, BigDecimal growthWeight) {
+        return new ScoreWeights(viewsWeight, likesWeight, engagementWeight, growthWeight);
+    }
+
+    /**
+     * @throws ArithmeticException if a weight has too many decimal places for fixed point scoring
+     */
+    FixedPointScore.Weights fixedPoint() {
+        return FixedPointScore.Weights.of(views, likes, engagement, growth);
+    }
+}
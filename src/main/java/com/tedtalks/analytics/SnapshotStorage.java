@@ -0,0 +1,175 @@
+package com.tedtalks.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Files under {@code tedtalks.snapshot.dir} holding the in-memory structures, so a restart against a persistent
+ * database loads them from disk instead of reading the whole catalog again. Disabled when the directory is blank.
+ *
+ * Each snapshot records the last talk id it covers, the number of talks up to that id and the wrapping sum of
+ * their content hashes. It is only used while the database still has exactly those talks; rows added after it
+ * are appended as usual, and anything else (an upsert, a delete) means a full rebuild.
+ */
+@Slf4j
+@Component
+public class SnapshotStorage {
+    private static final int MAGIC = 0x54454453; // "TEDS"
+    private static final String FINGERPRINT_SQL =
+            "SELECT COUNT(*), COALESCE(SUM(content_hash), 0) FROM ted_talks WHERE id <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+
+    public SnapshotStorage(JdbcTemplate jdbcTemplate, @Value("${tedtalks.snapshot.dir:}") String directory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Talks covered by a snapshot. hashSum is the sum of their content hashes, wrapping on overflow.
+     */
+    public record Fingerprint(long lastId, long rows, long hashSum) {
+    }
+
+    @FunctionalInterface
+    public interface SnapshotReader<T> {
+        T read(DataInputStream in, Fingerprint fingerprint) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface SnapshotWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads a snapshot file in its own format; returns null if the file is in another format or outdated.
+     */
+    @FunctionalInterface
+    public interface FileReader<T> {
+        T read(Path file) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface FileWriter {
+        void write(Path file) throws IOException;
+    }
+
+    /**
+     * Reads the named snapshot if it exists, has the given format version and still matches the database.
+     * A missing, outdated or unreadable snapshot is reported as empty, so the caller rebuilds.
+     */
+    public <T> Optional<T> read(String name, int formatVersion, SnapshotReader<T> reader) {
+        return readFile(name, file -> {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readInt() != MAGIC || in.readInt() != formatVersion) {
+                    return null;
+                }
+                Fingerprint fingerprint = new Fingerprint(in.readLong(), in.readLong(), in.readLong());
+                return matchesDatabase(fingerprint) ? reader.read(in, fingerprint) : null;
+            }
+        });
+    }
+
+    /**
+     * Replaces the named snapshot with a stream written by the writer after the header.
+     */
+    public void write(String name, int formatVersion, Fingerprint fingerprint, SnapshotWriter writer) {
+        replace(name, temp -> {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(formatVersion);
+                out.writeLong(fingerprint.lastId());
+                out.writeLong(fingerprint.rows());
+                out.writeLong(fingerprint.hashSum());
+                writer.write(out);
+            }
+        });
+    }
+
+    /**
+     * Hands the named snapshot file to a reader that handles its own format and fingerprint check.
+     */
+    public <T> Optional<T> readFile(String name, FileReader<T> reader) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(name + ".snapshot");
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            T result = reader.read(file);
+            if (result == null) {
+                log.info("Ignoring snapshot {}, written in another format or before the catalog changed", file);
+            }
+            return Optional.ofNullable(result);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read snapshot {}: {}", file, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replaces the named snapshot. The file is written next to the old one and moved over it, so a crash while
+     * writing leaves the previous snapshot intact. Failures are logged, since the snapshot is only an optimization.
+     */
+    public void replace(String name, FileWriter writer) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path file = directory.resolve(name + ".snapshot");
+        Path temp = directory.resolve(name + ".snapshot.tmp");
+        try {
+            Files.createDirectories(directory);
+            writer.write(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write snapshot {}: {}", file, e.toString());
+        }
+    }
+
+    /**
+     * True if the database holds exactly the talks the fingerprint was taken from, up to its last id.
+     */
+    public boolean matchesDatabase(Fingerprint fingerprint) {
+        return fingerprint.equals(jdbcTemplate.queryForObject(FINGERPRINT_SQL, (rs, rowNum) -> {
+            // SUM of BIGINT is exact; keep its low 64 bits to compare with the wrapping sum
+            BigDecimal sum = rs.getBigDecimal(2);
+            return new Fingerprint(fingerprint.lastId(), rs.getLong(1), sum.toBigInteger().longValue());
+        }, fingerprint.lastId()));
+    }
+
+    /**
+     * Strings as a length-prefixed UTF-8 array, without the 64 KB limit of {@link DataOutputStream#writeUTF}.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package com.tedtalks.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-mapped binary snapshot of the {@link TalkColumns}, written by {@link TalkColumnStore} after every change.
+ *
+ * <pre>
+ * header       64 bytes: magic "TEDC", format version, rows, authors, flags, last id, content hash sum,
+ *              string heap length and a CRC32C of everything after the header
+ * columns      long ids[rows], long views[rows], long likes[rows], int epochDays[rows], int authorIds[rows]
+ * string heap  int offsets[authors + 1] into the UTF-8 author names that follow; author id n is string n
+ * </pre>
+ *
+ * Values are little-endian, the native order of common hardware, so restoring a column is one bulk copy out of
+ * the page cache instead of a decode per value. The whole file must fit a single mapping (2 GB, about 60 million talks).
+ */
+final class TalkCatalogFile {
+    static final String NAME = "talk-columns";
+    static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x54454443; // "TEDC"
+    private static final int HEADER_BYTES = 64;
+    private static final int OVERFLOW_FLAG = 1;
+
+    private TalkCatalogFile() {
+    }
+
+    record Contents(TalkColumns columns, long hashSum) {
+    }
+
+    static void write(SnapshotStorage snapshotStorage, TalkColumns columns, long hashSum) {
+        snapshotStorage.replace(NAME, file -> write(file, columns, hashSum));
+    }
+
+    /**
+     * Restores the columns if the snapshot exists, is intact and still matches the database.
+     */
+    static Optional<Contents> read(SnapshotStorage snapshotStorage) {
+        return snapshotStorage.readFile(NAME, file -> read(file, snapshotStorage));
+    }
+
+    static void write(Path file, TalkColumns columns, long hashSum) throws IOException {
+        int rows = columns.size();
+        int authors = 0;
+        while (authors < columns.authorNames.length && columns.authorNames[authors] != null) {
+            authors++;
+        }
+        byte[][] names = new byte[authors][];
+        long heapBytes = 0;
+        for (int author = 0; author < authors; author++) {
+            names[author] = columns.authorNames[author].getBytes(StandardCharsets.UTF_8);
+            heapBytes += names[author].length;
+        }
+        long heapStart = HEADER_BYTES + 32L * rows;
+        long length = heapStart + 4L * (authors + 1) + heapBytes;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("A catalog of " + rows + " talks does not fit a single mapping");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            region(buffer, HEADER_BYTES, 8L * rows).asLongBuffer().put(columns.ids, 0, rows);
+            region(buffer, HEADER_BYTES + 8L * rows, 8L * rows).asLongBuffer().put(columns.views, 0, rows);
+            region(buffer, HEADER_BYTES + 16L * rows, 8L * rows).asLongBuffer().put(columns.likes, 0, rows);
+            region(buffer, HEADER_BYTES + 24L * rows, 4L * rows).asIntBuffer().put(columns.epochDays, 0, rows);
+            region(buffer, HEADER_BYTES + 28L * rows, 4L * rows).asIntBuffer().put(columns.authorIds, 0, rows);
+
+            ByteBuffer offsets = region(buffer, heapStart, 4L * (authors + 1));
+            ByteBuffer heap = region(buffer, heapStart + 4L * (authors + 1), heapBytes);
+            for (byte[] name : names) {
+                offsets.putInt(heap.position());
+                heap.put(name);
+            }
+            offsets.putInt(heap.position());
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putInt(8, rows);
+            buffer.putInt(12, authors);
+            buffer.putInt(16, columns.hasOverflow() ? OVERFLOW_FLAG : 0);
+            buffer.putLong(24, rows == 0 ? 0 : columns.ids[rows - 1]);
+            buffer.putLong(32, hashSum);
+            buffer.putLong(40, heapBytes);
+            buffer.putLong(48, checksum(buffer, length));
+            buffer.force();
+        }
+    }
+
+    /**
+     * @return the contents, or null if the file is in another format or the database changed since it was written
+     */
+    private static Contents read(Path file, SnapshotStorage snapshotStorage) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected snapshot length " + length);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                return null;
+            }
+            int rows = buffer.getInt(8);
+            int authors = buffer.getInt(12);
+            boolean overflow = (buffer.getInt(16) & OVERFLOW_FLAG) != 0;
+            long lastId = buffer.getLong(24);
+            long hashSum = buffer.getLong(32);
+            long heapBytes = buffer.getLong(40);
+            long heapStart = HEADER_BYTES + 32L * rows;
+            if (rows < 0 || authors < 0 || heapBytes < 0 || heapStart + 4L * (authors + 1) + heapBytes != length) {
+                throw new IOException("Snapshot header does not match the file length");
+            }
+            if (checksum(buffer, length) != buffer.getLong(48)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            if (!snapshotStorage.matchesDatabase(new SnapshotStorage.Fingerprint(lastId, rows, hashSum))) {
+                return null;
+            }
+
+            long[] ids = new long[rows];
+            long[] views = new long[rows];
+            long[] likes = new long[rows];
+            int[] epochDays = new int[rows];
+            int[] authorIds = new int[rows];
+            region(buffer, HEADER_BYTES, 8L * rows).asLongBuffer().get(ids);
+            region(buffer, HEADER_BYTES + 8L * rows, 8L * rows).asLongBuffer().get(views);
+            region(buffer, HEADER_BYTES + 16L * rows, 8L * rows).asLongBuffer().get(likes);
+            region(buffer, HEADER_BYTES + 24L * rows, 4L * rows).asIntBuffer().get(epochDays);
+            region(buffer, HEADER_BYTES + 28L * rows, 4L * rows).asIntBuffer().get(authorIds);
+            if (rows > 0 && ids[rows - 1] != lastId) {
+                throw new IOException("Snapshot columns do not match its header");
+            }
+
+            int[] offsets = new int[authors + 1];
+            region(buffer, heapStart, 4L * (authors + 1)).asIntBuffer().get(offsets);
+            byte[] heap = new byte[(int) heapBytes];
+            region(buffer, heapStart + 4L * (authors + 1), heapBytes).get(heap);
+            String[] authorNames = new String[authors];
+            for (int author = 0; author < authors; author++) {
+                authorNames[author] = new String(heap, offsets[author], offsets[author + 1] - offsets[author], StandardCharsets.UTF_8);
+            }
+
+            int[] epochMonths = new int[rows];
+            byte[] daysOfMonth = new byte[rows];
+            for (int row = 0; row < rows; row++) {
+                if (authorIds[row] < 0 || authorIds[row] >= authors) {
+                    throw new IOException("Snapshot row " + row + " refers to an unknown author");
+                }
+                LocalDate date = LocalDate.ofEpochDay(epochDays[row]);
+                epochMonths[row] = TalkColumns.epochMonth(date);
+                daysOfMonth[row] = (byte) date.getDayOfMonth();
+            }
+            return new Contents(new TalkColumns(ids, views, likes, epochDays, epochMonths, daysOfMonth, authorIds,
+                    authorNames, rows, overflow), hashSum);
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, long length) {
+        CRC32C crc = new CRC32C();
+        crc.update(region(buffer, HEADER_BYTES, length - HEADER_BYTES));
+        return crc.getValue();
+    }
+
+    /**
+     * Little-endian view of part of the file; slices do not inherit the byte order.
+     */
+    private static ByteBuffer region(ByteBuffer buffer, long offset, long bytes) {
+        return buffer.slice((int) offset, (int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
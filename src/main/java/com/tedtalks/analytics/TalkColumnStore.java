@@ -0,0 +1,323 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.service.TalksImportedEvent;
+import com.tedtalks.util.FixedPointScore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Read-optimized copy of the talk catalog for the ranking endpoints.
+ *
+ * Talks are held as primitive columns ({@link TalkColumns}) with dictionary-encoded authors. The store is
+ * loaded at startup and extended with the new rows after every committed import. Readers work on an
+ * immutable snapshot, so queries never block an append. When {@link SnapshotStorage} is enabled the columns are
+ * also written to a memory-mapped {@link TalkCatalogFile} after every change, and a restart only reads the talks
+ * added since.
+ */
+@Slf4j
+@Component
+public class TalkColumnStore {
+    private static final String SELECT_SQL = "SELECT id, author, views, likes, date, content_hash FROM ted_talks WHERE id > ? ORDER BY id";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM ted_talks WHERE id <= ?";
+    private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SnapshotStorage snapshotStorage;
+    private volatile Catalog catalog = new Catalog(TalkColumns.EMPTY, new HashMap<>(), 0);
+    private volatile boolean loaded;
+
+    public TalkColumnStore(JdbcTemplate jdbcTemplate, SnapshotStorage snapshotStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotStorage = snapshotStorage;
+    }
+
+    /**
+     * True once the catalog has been loaded and every talk fits the primitive columns.
+     */
+    public boolean isReady() {
+        return loaded && !catalog.columns().hasOverflow();
+    }
+
+    public TalkColumns columns() {
+        return catalog.columns();
+    }
+
+    /**
+     * Published state of the store, replaced as a whole. hashSum is the wrapping sum of the content hashes of the
+     * loaded rows, recorded with each snapshot. The author dictionary is only read and extended under the store's
+     * lock; readers use the columns' author names.
+     */
+    private record Catalog(TalkColumns columns, Map<String, Integer> authorDictionary, long hashSum) {
+    }
+
+    /**
+     * Restores the columns from the snapshot if it still matches the database and appends the talks added
+     * after it; otherwise loads the whole catalog.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Optional<TalkCatalogFile.Contents> restored = TalkCatalogFile.read(snapshotStorage);
+        if (restored.isEmpty()) {
+            rebuild();
+            return;
+        }
+        TalkColumns restoredColumns = restored.get().columns();
+        Map<String, Integer> authorDictionary = new HashMap<>();
+        for (int author = 0; author < restoredColumns.authorNames.length; author++) {
+            authorDictionary.put(restoredColumns.authorNames[author], author);
+        }
+        catalog = new Catalog(restoredColumns, authorDictionary, restored.get().hashSum());
+        int restoredRows = restoredColumns.size();
+        appendNewRows();
+        loaded = true;
+        log.info("Restored {} TED Talks into the column store from a snapshot, {} added since",
+                restoredRows, columns().size() - restoredRows);
+        if (columns().size() > restoredRows) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Reads the whole catalog into new columns and a new author dictionary. Readers keep using the published
+     * catalog until it is replaced by the new one in a single write.
+     */
+    public synchronized void rebuild() {
+        Appender appender = new Appender(new Catalog(TalkColumns.EMPTY, new HashMap<>(), 0));
+        jdbcTemplate.query(SELECT_SQL, appender::append, 0L);
+        catalog = appender.toCatalog();
+        loaded = true;
+        log.info("Loaded {} TED Talks into the column store", columns().size());
+        writeSnapshot();
+    }
+
+    /**
+     * Runs before other import listeners, which may read the store. An upsert that changed stored counts
+     * reloads the store, since rows are only ever appended in place, and so do talks committed out of id order.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTalksImported(TalksImportedEvent event) {
+        if (event.rowsUpdated() > 0) {
+            rebuild();
+            return;
+        }
+        int before = columns().size();
+        appendNewRows();
+        if (missesCommittedRows()) {
+            log.info("TED Talks were committed out of id order, reloading the column store");
+            rebuild();
+            return;
+        }
+        if (columns().size() > before) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Appends rows with ids above the last loaded one. Ids are assigned in insert order, but imports running at
+     * the same time can commit out of that order; a talk committed below the last loaded id is not picked up here,
+     * see {@link #onTalksImported}.
+     */
+    public synchronized void appendNewRows() {
+        Catalog current = catalog;
+        Appender appender = new Appender(current);
+        long lastId = appender.size == 0 ? 0 : appender.ids[appender.size - 1];
+        int authorsBefore = current.authorDictionary().size();
+        try {
+            jdbcTemplate.query(SELECT_SQL, appender::append, lastId);
+        } catch (RuntimeException e) {
+            // Forget authors that only exist in the discarded appender
+            current.authorDictionary().values().removeIf(id -> id >= authorsBefore);
+            throw e;
+        }
+        catalog = appender.toCatalog();
+    }
+
+    /**
+     * True if the database holds more talks up to the last loaded id than the store, i.e. some committed after
+     * talks with higher ids had been loaded.
+     */
+    private synchronized boolean missesCommittedRows() {
+        TalkColumns current = columns();
+        if (current.size() == 0) {
+            return false;
+        }
+        Long stored = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, current.ids[current.size() - 1]);
+        return stored != null && stored > current.size();
+    }
+
+    private synchronized void writeSnapshot() {
+        Catalog current = catalog;
+        TalkCatalogFile.write(snapshotStorage, current.columns(), current.hashSum());
+    }
+
+    /**
+     * Id of the talk with the highest influence score published between the two epoch days (inclusive).
+     * Ties go to the lowest id.
+     *
+     * @throws ArithmeticException if the weights or a talk's counts do not fit fixed point scoring; rank in the
+     * database instead
+     */
+    public OptionalLong findMostInfluential(ScoreWeights weights, int fromEpochDay, int toEpochDay) {
+        TalkColumns snapshot = columns();
+        FixedPointScore.Weights fixedPointWeights = weights.fixedPoint();
+        LocalDate today = LocalDate.now();
+        int todayEpochMonth = TalkColumns.epochMonth(today);
+        int todayDayOfMonth = today.getDayOfMonth();
+
+        int best = -1;
+        long bestScore = Long.MIN_VALUE;
+        for (int row = 0; row < snapshot.size(); row++) {
+            int epochDay = snapshot.epochDays[row];
+            if (epochDay < fromEpochDay || epochDay > toEpochDay) continue;
+            long score = score(snapshot, row, fixedPointWeights, todayEpochMonth, todayDayOfMonth);
+            if (best < 0 || score > bestScore) {
+                bestScore = score;
+                best = row;
+            }
+        }
+        return best < 0 ? OptionalLong.empty() : OptionalLong.of(snapshot.ids[best]);
+    }
+
+    /**
+     * Ids of the k talks with the highest influence score, best first; ties go to the lower id.
+     * Selected with {@link TopRows}, so the cost is O(n log k) and memory O(k) regardless of catalog size.
+     *
+     * @throws ArithmeticException if the weights or a talk's counts do not fit fixed point scoring; rank in the
+     * database instead
+     */
+    public long[] topByInfluence(ScoreWeights weights, int k) {
+        TalkColumns snapshot = columns();
+        FixedPointScore.Weights fixedPointWeights = weights.fixedPoint();
+        LocalDate today = LocalDate.now();
+        int todayEpochMonth = TalkColumns.epochMonth(today);
+        int todayDayOfMonth = today.getDayOfMonth();
+
+        TopRows top = new TopRows(Math.min(k, snapshot.size()));
+        for (int row = 0; row < snapshot.size(); row++) {
+            top.offer(row, score(snapshot, row, fixedPointWeights, todayEpochMonth, todayDayOfMonth));
+        }
+        int[] rows = top.drain();
+        long[] ids = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = snapshot.ids[rows[i]];
+        }
+        return ids;
+    }
+
+    /**
+     * Influence score before rounding ({@link FixedPointScore#weightedSum}) from the same rounded engagement and
+     * growth rates that are stored with each talk, so talks rank exactly as in the database and never out of order
+     * with the scores reported for them.
+     *
+     * @throws ArithmeticException if an intermediate value does not fit in a long
+     */
+    static long score(TalkColumns columns, int row, FixedPointScore.Weights weights, int todayEpochMonth, int todayDayOfMonth) {
+        long views = columns.views[row];
+        long likes = columns.likes[row];
+        long days = Math.max(1, columns.monthsSincePublished(row, todayEpochMonth, todayDayOfMonth) * 30L);
+        return FixedPointScore.weightedSum(views, likes, FixedPointScore.engagementRate(views, likes),
+                FixedPointScore.growthRate(views, likes, days), weights);
+    }
+
+    /**
+     * Writes new rows after the current snapshot's size, growing the arrays when full.
+     * Slots beyond a published snapshot's size are invisible to its readers, so they can be reused.
+     */
+    private static final class Appender {
+        long[] ids;
+        long[] views;
+        long[] likes;
+        int[] epochDays;
+        int[] epochMonths;
+        byte[] daysOfMonth;
+        int[] authorIds;
+        String[] authorNames;
+        int size;
+        boolean overflow;
+        final Map<String, Integer> authorDictionary;
+        long hashSum;
+
+        Appender(Catalog base) {
+            TalkColumns current = base.columns();
+            ids = current.ids;
+            views = current.views;
+            likes = current.likes;
+            epochDays = current.epochDays;
+            epochMonths = current.epochMonths;
+            daysOfMonth = current.daysOfMonth;
+            authorIds = current.authorIds;
+            authorNames = current.authorNames;
+            size = current.size();
+            overflow = current.hasOverflow();
+            authorDictionary = base.authorDictionary();
+            hashSum = base.hashSum();
+        }
+
+        void append(ResultSet rs) throws SQLException {
+            if (size == ids.length) {
+                int capacity = Math.max(1024, size + (size >> 1));
+                ids = Arrays.copyOf(ids, capacity);
+                views = Arrays.copyOf(views, capacity);
+                likes = Arrays.copyOf(likes, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                epochMonths = Arrays.copyOf(epochMonths, capacity);
+                daysOfMonth = Arrays.copyOf(daysOfMonth, capacity);
+                authorIds = Arrays.copyOf(authorIds, capacity);
+            }
+            LocalDate date = rs.getObject(5, LocalDate.class);
+            ids[size] = rs.getLong(1);
+            authorIds[size] = authorId(rs.getString(2));
+            views[size] = toLong(rs.getBigDecimal(3));
+            likes[size] = toLong(rs.getBigDecimal(4));
+            epochDays[size] = (int) date.toEpochDay();
+            epochMonths[size] = TalkColumns.epochMonth(date);
+            daysOfMonth[size] = (byte) date.getDayOfMonth();
+            hashSum += rs.getLong(6);
+            size++;
+        }
+
+        private int authorId(String author) {
+            Integer id = authorDictionary.get(author);
+            if (id == null) {
+                id = authorDictionary.size();
+                authorDictionary.put(author, id);
+                if (id == authorNames.length) {
+                    authorNames = Arrays.copyOf(authorNames, Math.max(256, id * 2));
+                }
+                authorNames[id] = author;
+            }
+            return id;
+        }
+
+        private long toLong(BigDecimal value) {
+            if (value.compareTo(MAX_LONG) > 0) {
+                overflow = true;
+                return Long.MAX_VALUE;
+            }
+            return value.longValue();
+        }
+
+        Catalog toCatalog() {
+            return new Catalog(new TalkColumns(ids, views, likes, epochDays, epochMonths, daysOfMonth, authorIds,
+                    authorNames, size, overflow), authorDictionary, hashSum);
+        }
+    }
+}
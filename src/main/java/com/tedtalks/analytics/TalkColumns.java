@@ -0,0 +1,91 @@
+package com.tedtalks.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable view of the talk catalog held as primitive columns, one row per talk in id order.
+ *
+ * Arrays may be longer than {@link #size()}; slots past the size belong to later snapshots and are never read here.
+ */
+public final class TalkColumns {
+    static final TalkColumns EMPTY = new TalkColumns(new long[0], new long[0], new long[0], new int[0], new int[0],
+            new byte[0], new int[0], new String[0], 0, false);
+
+    final long[] ids;
+    final long[] views;
+    final long[] likes;
+    final int[] epochDays;
+    /** year * 12 + month - 1 of the publication date, used for the months-since-published term of growth. */
+    final int[] epochMonths;
+    final byte[] daysOfMonth;
+    /** Index into {@link #authorNames}. */
+    final int[] authorIds;
+    final String[] authorNames;
+    private final int size;
+    private final boolean overflow;
+
+    TalkColumns(long[] ids, long[] views, long[] likes, int[] epochDays, int[] epochMonths, byte[] daysOfMonth,
+                int[] authorIds, String[] authorNames, int size, boolean overflow) {
+        this.ids = ids;
+        this.views = views;
+        this.likes = likes;
+        this.epochDays = epochDays;
+        this.epochMonths = epochMonths;
+        this.daysOfMonth = daysOfMonth;
+        this.authorIds = authorIds;
+        this.authorNames = authorNames;
+        this.size = size;
+        this.overflow = overflow;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * True if some talk has views or likes beyond {@code long} range and cannot be ranked from these columns.
+     */
+    public boolean hasOverflow() {
+        return overflow;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public long views(int row) {
+        return views[row];
+    }
+
+    public long likes(int row) {
+        return likes[row];
+    }
+
+    public int epochDay(int row) {
+        return epochDays[row];
+    }
+
+    public String author(int row) {
+        return authorNames[authorIds[row]];
+    }
+
+    /**
+     * True if the first {@code rows} rows still end with the talk {@code lastId}. Ids are unique and in order, so
+     * they are then the same talks as when that id was read there; a talk committed out of id order and picked up
+     * by a reload moves it.
+     */
+    boolean continues(int rows, long lastId) {
+        return rows <= size && (rows == 0 || ids[rows - 1] == lastId);
+    }
+
+    /**
+     * Whole months between the publication date and today, as {@code Period.between(date, today).toTotalMonths()}.
+     */
+    int monthsSincePublished(int row, int todayEpochMonth, int todayDayOfMonth) {
+        return todayEpochMonth - epochMonths[row] - (todayDayOfMonth < daysOfMonth[row] ? 1 : 0);
+    }
+
+    static int epochMonth(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
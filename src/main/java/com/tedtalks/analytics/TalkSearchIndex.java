@@ -0,0 +1,383 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.service.TalksImportedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over talk titles and authors.
+ *
+ * Text is split on anything but letters and digits, case folded and stripped of accents. Every query token must
+ * match the start of a title or author word; an exact word counts twice as much as a prefix. The text score is
+ * multiplied by {@code log10(10 + views + likes)}, so among equally good matches the more popular talk ranks first.
+ *
+ * Like {@link TalkColumnStore}, the index is loaded at startup and extended with the rows of each committed import.
+ * Posting lists are immutable arrays replaced once per import, so queries never block an append; a reload builds
+ * new term maps and documents beside the published index and swaps them in at once. The index is snapshotted
+ * through {@link SnapshotStorage} the same way as the column store.
+ */
+@Slf4j
+@Component
+public class TalkSearchIndex {
+    private static final String SELECT_SQL = "SELECT id, title, author, views, likes, content_hash FROM ted_talks WHERE id > ? ORDER BY id";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM ted_talks WHERE id <= ?";
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final float EXACT_MATCH = 2;
+    private static final float PREFIX_MATCH = 1;
+    private static final String SNAPSHOT_NAME = "talk-search-index";
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SnapshotStorage snapshotStorage;
+    private volatile Index index = Index.empty();
+    private volatile boolean loaded;
+
+    public TalkSearchIndex(JdbcTemplate jdbcTemplate, SnapshotStorage snapshotStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotStorage = snapshotStorage;
+    }
+
+    public boolean isReady() {
+        return loaded;
+    }
+
+    /**
+     * Restores the index from the snapshot if it still matches the database and indexes the talks added
+     * after it; otherwise indexes the whole catalog.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Optional<Index> restored = snapshotStorage.read(SNAPSHOT_NAME, SNAPSHOT_VERSION, TalkSearchIndex::readSnapshot);
+        if (restored.isEmpty()) {
+            rebuild();
+            return;
+        }
+        index = restored.get();
+        int restoredSize = restored.get().size();
+        appendNewRows();
+        loaded = true;
+        log.info("Restored the search index of {} TED Talks from a snapshot, {} added since",
+                restoredSize, index.size() - restoredSize);
+        if (index.size() > restoredSize) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Indexes the whole catalog into new term maps and documents. Searches keep using the published index until
+     * it is replaced by the new one in a single write.
+     */
+    public synchronized void rebuild() {
+        Index built = Index.empty();
+        Batch batch = read(built);
+        merge(built.titleTerms(), batch.titlePostings);
+        merge(built.authorTerms(), batch.authorPostings);
+        index = new Index(batch.ids, batch.popularity, batch.size, built.titleTerms(), built.authorTerms(), batch.hashSum);
+        loaded = true;
+        log.info("Indexed {} TED Talks for search with {} title and {} author terms",
+                index.size(), index.titleTerms().size(), index.authorTerms().size());
+        writeSnapshot();
+    }
+
+    /**
+     * Updated counts change the popularity of stored documents, so an upsert that changed any reloads the index.
+     * So do talks committed out of id order, which the append cursor has already passed.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTalksImported(TalksImportedEvent event) {
+        if (event.rowsUpdated() > 0) {
+            rebuild();
+            return;
+        }
+        int before = index.size();
+        appendNewRows();
+        if (missesCommittedRows()) {
+            log.info("TED Talks were committed out of id order, reindexing");
+            rebuild();
+            return;
+        }
+        if (index.size() > before) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Indexes rows with ids above the last indexed one. Talks committed below it afterwards are not picked up
+     * here, see {@link #onTalksImported}.
+     */
+    public synchronized void appendNewRows() {
+        Index current = index;
+        Batch batch = read(current);
+        if (batch.size == current.size()) {
+            return;
+        }
+        // Publish the documents before the postings that refer to them
+        index = new Index(batch.ids, batch.popularity, batch.size, current.titleTerms(), current.authorTerms(),
+                batch.hashSum);
+        merge(current.titleTerms(), batch.titlePostings);
+        merge(current.authorTerms(), batch.authorPostings);
+    }
+
+    private Batch read(Index base) {
+        long lastId = base.size() == 0 ? 0 : base.ids()[base.size() - 1];
+        Batch batch = new Batch(base);
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            batch.add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4), rs.getBigDecimal(5));
+            batch.hashSum += rs.getLong(6);
+        }, lastId);
+        return batch;
+    }
+
+    /**
+     * True if the database holds more talks up to the last indexed id than the index.
+     */
+    private synchronized boolean missesCommittedRows() {
+        Index current = index;
+        if (current.size() == 0) {
+            return false;
+        }
+        Long stored = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, current.ids()[current.size() - 1]);
+        return stored != null && stored > current.size();
+    }
+
+    private synchronized void writeSnapshot() {
+        Index current = index;
+        SnapshotStorage.Fingerprint fingerprint = new SnapshotStorage.Fingerprint(
+                current.size() == 0 ? 0 : current.ids()[current.size() - 1], current.size(), current.hashSum());
+        snapshotStorage.write(SNAPSHOT_NAME, SNAPSHOT_VERSION, fingerprint, out -> {
+            out.writeInt(current.size());
+            for (int doc = 0; doc < current.size(); doc++) {
+                out.writeLong(current.ids()[doc]);
+                out.writeDouble(current.popularity()[doc]);
+            }
+            writeTerms(out, current.titleTerms());
+            writeTerms(out, current.authorTerms());
+        });
+    }
+
+    private static void writeTerms(DataOutputStream out, Map<String, int[]> terms) throws IOException {
+        out.writeInt(terms.size());
+        for (Map.Entry<String, int[]> entry : terms.entrySet()) {
+            SnapshotStorage.writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().length);
+            for (int doc : entry.getValue()) {
+                out.writeInt(doc);
+            }
+        }
+    }
+
+    private static Index readSnapshot(DataInputStream in, SnapshotStorage.Fingerprint fingerprint) throws IOException {
+        int size = in.readInt();
+        long[] ids = new long[size];
+        double[] popularity = new double[size];
+        for (int doc = 0; doc < size; doc++) {
+            ids[doc] = in.readLong();
+            popularity[doc] = in.readDouble();
+        }
+        if (size != fingerprint.rows() || (size > 0 && ids[size - 1] != fingerprint.lastId())) {
+            throw new IOException("Documents do not match the snapshot header");
+        }
+        return new Index(ids, popularity, size, new ConcurrentSkipListMap<>(readTerms(in)),
+                new ConcurrentSkipListMap<>(readTerms(in)), fingerprint.hashSum());
+    }
+
+    private static Map<String, int[]> readTerms(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, int[]> terms = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String term = SnapshotStorage.readString(in);
+            int[] postings = new int[in.readInt()];
+            for (int j = 0; j < postings.length; j++) {
+                postings[j] = in.readInt();
+            }
+            terms.put(term, postings);
+        }
+        return terms;
+    }
+
+    private static void merge(NavigableMap<String, int[]> terms, Map<String, IntList> additions) {
+        additions.forEach((term, added) -> {
+            int[] existing = terms.getOrDefault(term, new int[0]);
+            int[] merged = Arrays.copyOf(existing, existing.length + added.size);
+            System.arraycopy(added.values, 0, merged, existing.length, added.size);
+            terms.put(term, merged);
+        });
+    }
+
+    /**
+     * Ids of the best {@code limit} matches for the query, best first; ties go to the lower id.
+     *
+     * Scores are summed per token into a primitive array indexed by document, and the best are picked with a
+     * bounded heap, so a short prefix matching most of the catalog costs no boxing and no full sort.
+     */
+    public long[] search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+        // Postings may already refer to documents appended after this read; those are left out
+        Index current = index;
+        NavigableMap<String, int[]> titleTerms = current.titleTerms();
+        NavigableMap<String, int[]> authorTerms = current.authorTerms();
+        float[] scores = new float[current.size()];
+        // Number of leading query tokens each document has matched
+        int[] matchedTokens = new int[current.size()];
+        for (int token = 0; token < tokens.size(); token++) {
+            String text = tokens.get(token);
+            // Exact words first, so the first posting of a document for this token carries its best weight
+            int matched = collect(titleTerms.get(text), EXACT_MATCH, token, scores, matchedTokens)
+                    + collect(authorTerms.get(text), EXACT_MATCH, token, scores, matchedTokens);
+            for (int[] postings : titleTerms.subMap(text, false, text + Character.MAX_VALUE, false).values()) {
+                matched += collect(postings, PREFIX_MATCH, token, scores, matchedTokens);
+            }
+            for (int[] postings : authorTerms.subMap(text, false, text + Character.MAX_VALUE, false).values()) {
+                matched += collect(postings, PREFIX_MATCH, token, scores, matchedTokens);
+            }
+            if (matched == 0) {
+                return new long[0];
+            }
+        }
+
+        TopRows top = new TopRows(limit);
+        for (int doc = 0; doc < current.size(); doc++) {
+            if (matchedTokens[doc] == tokens.size()) {
+                // Scores are non-negative, and non-negative doubles order like their bit patterns
+                top.offer(doc, Double.doubleToLongBits(scores[doc] * current.popularity()[doc]));
+            }
+        }
+        int[] best = top.drain();
+        long[] ids = new long[best.length];
+        for (int i = 0; i < best.length; i++) {
+            ids[i] = current.ids()[best[i]];
+        }
+        return ids;
+    }
+
+    /**
+     * Adds the weight to the documents of the postings that matched every earlier token and not yet this one.
+     *
+     * @return number of documents that now match this token
+     */
+    private static int collect(int[] postings, float weight, int token, float[] scores, int[] matchedTokens) {
+        if (postings == null) {
+            return 0;
+        }
+        int matched = 0;
+        for (int doc : postings) {
+            if (doc < scores.length && matchedTokens[doc] == token) {
+                matchedTokens[doc] = token + 1;
+                scores[doc] += weight;
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Splits text into case-folded words without accents, e.g. "Café Society" into [cafe, society].
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Published state of the index. Appends add postings to the term maps after publishing the documents they refer
+     * to; a search holding an earlier index skips postings past its size. hashSum is the wrapping sum of the content
+     * hashes of the indexed rows, recorded with each snapshot.
+     */
+    private record Index(long[] ids, double[] popularity, int size, NavigableMap<String, int[]> titleTerms,
+                         NavigableMap<String, int[]> authorTerms, long hashSum) {
+        static Index empty() {
+            return new Index(new long[0], new double[0], 0, new ConcurrentSkipListMap<>(), new ConcurrentSkipListMap<>(), 0);
+        }
+    }
+
+    /**
+     * Rows of one append. Document arrays grow past the published size, which readers never look at.
+     */
+    private static final class Batch {
+        long[] ids;
+        double[] popularity;
+        int size;
+        long hashSum;
+        final Map<String, IntList> titlePostings = new HashMap<>();
+        final Map<String, IntList> authorPostings = new HashMap<>();
+
+        Batch(Index current) {
+            ids = current.ids();
+            popularity = current.popularity();
+            size = current.size();
+            hashSum = current.hashSum();
+        }
+
+        void add(long id, String title, String author, BigDecimal views, BigDecimal likes) {
+            if (size == ids.length) {
+                int capacity = Math.max(1024, size + (size >> 1));
+                ids = Arrays.copyOf(ids, capacity);
+                popularity = Arrays.copyOf(popularity, capacity);
+            }
+            ids[size] = id;
+            popularity[size] = Math.log10(10 + views.doubleValue() + likes.doubleValue());
+            for (String term : tokenize(title)) {
+                titlePostings.computeIfAbsent(term, t -> new IntList()).addOnce(size);
+            }
+            for (String term : tokenize(author)) {
+                authorPostings.computeIfAbsent(term, t -> new IntList()).addOnce(size);
+            }
+            size++;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        /**
+         * Appends the document unless it is already last, so a word repeated in one title is posted once.
+         */
+        void addOnce(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
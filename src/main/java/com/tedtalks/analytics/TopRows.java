@@ -0,0 +1,79 @@
+package com.tedtalks.analytics;
+
+/**
+ * The k best rows by score, kept in a bounded min-heap over primitive arrays; ties go to the lower row.
+ * The root is the lowest ranked row kept, so an offer costs O(log k) and memory stays O(k) regardless of catalog size.
+ */
+final class TopRows {
+    private final int[] rows;
+    private final long[] scores;
+    private int size;
+
+    TopRows(int capacity) {
+        rows = new int[capacity];
+        scores = new long[capacity];
+    }
+
+    void offer(int row, long score) {
+        if (size < rows.length) {
+            rows[size] = row;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (size > 0 && ranksAbove(score, row, scores[0], rows[0])) {
+            rows[0] = row;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * The rows kept, best first. Empties the heap.
+     */
+    int[] drain() {
+        // Popping the root fills the result from the back
+        int[] best = new int[size];
+        for (int remaining = size; remaining > 0; remaining--) {
+            best[remaining - 1] = rows[0];
+            rows[0] = rows[remaining - 1];
+            scores[0] = scores[remaining - 1];
+            siftDown(0, remaining - 1);
+        }
+        size = 0;
+        return best;
+    }
+
+    private static boolean ranksAbove(long score, int row, long otherScore, int otherRow) {
+        return score > otherScore || (score == otherScore && row < otherRow);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(scores[parent], rows[parent], scores[index], rows[index])) break;
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int size) {
+        while (true) {
+            int lowest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && ranksAbove(scores[lowest], rows[lowest], scores[left], rows[left])) lowest = left;
+            if (right < size && ranksAbove(scores[lowest], rows[lowest], scores[right], rows[right])) lowest = right;
+            if (lowest == index) return;
+            swap(lowest, index);
+            index = lowest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        long score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
@@ -0,0 +1,11 @@
+package com.tedtalks.analytics;
+
+import java.math.BigInteger;
+
+/**
+ * Materialized summary of one publication year. Leader ids are those of the best talk by views, by likes
+ * and by influence score with {@link ScoreWeights#DEFAULT}; ties go to the lowest id.
+ */
+public record YearStats(int year, int talkCount, BigInteger totalViews, BigInteger totalLikes,
+                        long mostViewedId, long mostLikedId, long mostInfluentialId) {
+}
@@ -0,0 +1,188 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.service.TalksImportedEvent;
+import com.tedtalks.util.FixedPointScore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Per-year summaries ({@link YearStats}) materialized from the {@link TalkColumnStore}.
+ *
+ * After each import only the rows appended to the store since the last update are folded in. The growth term
+ * of the influence score depends on today's date, so the summaries are recomputed once when the day changes.
+ */
+@Slf4j
+@Component
+public class YearlyLeaderboard {
+    private final TalkColumnStore talkColumnStore;
+    private final TreeMap<Integer, YearAccumulator> years = new TreeMap<>();
+    private int foldedRows;
+    private long foldedLastId;
+    private volatile long asOfEpochDay;
+    private volatile boolean loaded;
+    private volatile boolean scoreOverflow;
+    private volatile List<YearStats> summary = List.of();
+
+    public YearlyLeaderboard(TalkColumnStore talkColumnStore) {
+        this.talkColumnStore = talkColumnStore;
+    }
+
+    /**
+     * True once built from a ready column store whose talks all fit fixed point scoring.
+     */
+    public boolean isReady() {
+        return loaded && !scoreOverflow && talkColumnStore.isReady();
+    }
+
+    /**
+     * Summaries of every year with at least one talk, oldest year first.
+     */
+    public List<YearStats> summary() {
+        if (asOfEpochDay != LocalDate.now().toEpochDay()) {
+            rebuildIfStale();
+        }
+        return summary;
+    }
+
+    /**
+     * Runs after the column store has loaded.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        years.clear();
+        foldedRows = 0;
+        scoreOverflow = false;
+        asOfEpochDay = LocalDate.now().toEpochDay();
+        foldNewRows();
+        loaded = true;
+        log.info("Materialized per-year statistics for {} years", years.size());
+    }
+
+    /**
+     * Runs after the column store has appended the imported rows. Totals of talks whose counts an upsert
+     * changed cannot be folded in, so then everything is recomputed.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTalksImported(TalksImportedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event.rowsUpdated() > 0) {
+            rebuild();
+        } else {
+            foldNewRows();
+        }
+    }
+
+    private synchronized void rebuildIfStale() {
+        if (asOfEpochDay != LocalDate.now().toEpochDay()) {
+            rebuild();
+        }
+    }
+
+    private void foldNewRows() {
+        TalkColumns columns = talkColumnStore.columns();
+        if (!columns.continues(foldedRows, foldedLastId)) {
+            // The store was reloaded; row positions no longer match
+            years.clear();
+            foldedRows = 0;
+            scoreOverflow = false;
+        }
+        LocalDate today = LocalDate.ofEpochDay(asOfEpochDay);
+        int todayEpochMonth = TalkColumns.epochMonth(today);
+        int todayDayOfMonth = today.getDayOfMonth();
+        FixedPointScore.Weights weights = ScoreWeights.DEFAULT.fixedPoint();
+        for (int row = foldedRows; row < columns.size(); row++) {
+            int year = LocalDate.ofEpochDay(columns.epochDays[row]).getYear();
+            long score;
+            try {
+                score = TalkColumnStore.score(columns, row, weights, todayEpochMonth, todayDayOfMonth);
+            } catch (ArithmeticException e) {
+                scoreOverflow = true;
+                score = Long.MAX_VALUE;
+            }
+            years.computeIfAbsent(year, YearAccumulator::new).add(columns, row, score);
+        }
+        if (scoreOverflow) {
+            log.warn("Influence scores do not fit fixed point, ranking years in the database until the next rebuild");
+        }
+        foldedRows = columns.size();
+        foldedLastId = foldedRows == 0 ? 0 : columns.ids[foldedRows - 1];
+
+        List<YearStats> stats = new ArrayList<>(years.size());
+        years.values().forEach(accumulator -> stats.add(accumulator.toStats()));
+        summary = List.copyOf(stats);
+    }
+
+    /**
+     * Running totals and leaders of one year. Rows arrive in id order, so a leader is only replaced by a
+     * strictly better row, which keeps ties on the lowest id.
+     */
+    private static final class YearAccumulator {
+        final int year;
+        int talkCount;
+        BigInteger totalViews = BigInteger.ZERO;
+        BigInteger totalLikes = BigInteger.ZERO;
+        // Non-negative partial sums, moved into the totals before they would overflow
+        long pendingViews;
+        long pendingLikes;
+        long mostViewedId;
+        long maxViews = -1;
+        long mostLikedId;
+        long maxLikes = -1;
+        long mostInfluentialId;
+        long maxScore = Long.MIN_VALUE;
+
+        YearAccumulator(int year) {
+            this.year = year;
+        }
+
+        void add(TalkColumns columns, int row, long score) {
+            long id = columns.ids[row];
+            long views = columns.views[row];
+            long likes = columns.likes[row];
+            talkCount++;
+            if (pendingViews + views < 0) {
+                totalViews = totalViews.add(BigInteger.valueOf(pendingViews));
+                pendingViews = 0;
+            }
+            pendingViews += views;
+            if (pendingLikes + likes < 0) {
+                totalLikes = totalLikes.add(BigInteger.valueOf(pendingLikes));
+                pendingLikes = 0;
+            }
+            pendingLikes += likes;
+            if (views > maxViews) {
+                maxViews = views;
+                mostViewedId = id;
+            }
+            if (likes > maxLikes) {
+                maxLikes = likes;
+                mostLikedId = id;
+            }
+            if (talkCount == 1 || score > maxScore) {
+                maxScore = score;
+                mostInfluentialId = id;
+            }
+        }
+
+        YearStats toStats() {
+            return new YearStats(year, talkCount,
+                    totalViews.add(BigInteger.valueOf(pendingViews)), totalLikes.add(BigInteger.valueOf(pendingLikes)),
+                    mostViewedId, mostLikedId, mostInfluentialId);
+        }
+    }
+}
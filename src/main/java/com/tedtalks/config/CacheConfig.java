@@ -0,0 +1,20 @@
+package com.tedtalks.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches for the leaderboard endpoints. Their answers only change when talks are imported or the stored
+ * score components are refreshed, and both clear the caches. Size and eviction are set by
+ * {@code spring.cache.caffeine.spec}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String MOST_VIEWED = "mostViewed";
+    public static final String MOST_LIKED = "mostLiked";
+    public static final String MOST_INFLUENTIAL = "mostInfluential";
+    public static final String MOST_INFLUENTIAL_PER_YEAR = "mostInfluentialPerYear";
+    public static final String YEAR_STATS = "yearStats";
+    public static final String TOP_AUTHORS = "topAuthors";
+}
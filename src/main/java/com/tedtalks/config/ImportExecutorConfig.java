@@ -0,0 +1,47 @@
+package com.tedtalks.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImportExecutorConfig {
+
+    /**
+     * Bounded pool for asynchronous imports. Submissions beyond the queue capacity are rejected
+     * rather than queued without limit, so a burst of uploads cannot exhaust memory or request threads.
+     *
+     * With {@code spring.threads.virtual.enabled} on Java 21 the workers are virtual threads. The pool size still
+     * bounds how many imports, and so how many Hikari connections, run at once.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(@Value("${tedtalks.import.async.pool-size:2}") int poolSize,
+                                                 @Value("${tedtalks.import.async.queue-capacity:10}") int queueCapacity,
+                                                 Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("csv-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Workers for parallel CSV parsing, used when {@code tedtalks.import.parallelism} is above 1.
+     * Each import keeps at most twice that many chunks queued, so the queue stays bounded per import.
+     * Parsing is CPU bound, so these stay platform threads in the virtual-thread profile.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor csvParseExecutor(@Value("${tedtalks.import.parallelism:1}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("csv-parse-");
+        return executor;
+    }
+}
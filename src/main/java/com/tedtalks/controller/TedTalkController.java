@@ -1,21 +1,36 @@
 package com.tedtalks.controller;
 
+import com.tedtalks.analytics.AuthorStats;
 import com.tedtalks.entity.TedTalk;
 import com.tedtalks.exception.BadRequestException;
 import com.tedtalks.service.CsvImportService;
+import com.tedtalks.service.ImportJob;
+import com.tedtalks.service.ImportJobService;
+import com.tedtalks.service.ImportMode;
+import com.tedtalks.service.ImportProgress;
+import com.tedtalks.service.TalkExportService;
+import com.tedtalks.service.TalkWindow;
 import com.tedtalks.service.TedTalksService;
+import com.tedtalks.service.YearSummary;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @RestController
@@ -23,20 +38,39 @@ import java.util.Optional;
 public class TedTalkController {
     private final CsvImportService csvImportService;
     private final TedTalksService tedTalksService;
+    private final ImportJobService importJobService;
+    private final TalkExportService talkExportService;
 
-    public TedTalkController(CsvImportService csvImportService, TedTalksService tedTalksService) {
+    public TedTalkController(CsvImportService csvImportService, TedTalksService tedTalksService,
+                             ImportJobService importJobService, TalkExportService talkExportService) {
         this.csvImportService = csvImportService;
         this.tedTalksService = tedTalksService;
+        this.importJobService = importJobService;
+        this.talkExportService = talkExportService;
     }
 
+    /**
+     * mode=upsert updates the views and likes of links already stored instead of rejecting the file.
+     */
     @PostMapping("/import")
-    public ResponseEntity<Map<String, String>> importCsv(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, String>> importCsv(@RequestParam("file") MultipartFile file,
+                                                         @RequestParam(defaultValue = "false") boolean async,
+                                                         @RequestParam(defaultValue = "insert") String mode) {
+        ImportMode importMode = ImportMode.of(mode);
         if (file.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", "CSV file is required"));
         }
+        if (async) {
+            return submitImportJob(file, importMode);
+        }
         try {
-            csvImportService.importCsv(file);
-            return ResponseEntity.ok(Map.of("message", "CSV file imported successfully"));
+            if (importMode == ImportMode.INSERT) {
+                csvImportService.importCsv(file);
+                return ResponseEntity.ok(Map.of("message", "CSV file imported successfully"));
+            }
+            ImportProgress progress = new ImportProgress();
+            int written = csvImportService.importCsv(file, progress, importMode);
+            return importedResponse(written, progress, importMode);
         } catch (BadRequestException e) {
             log.error("CSV Import failed: {}", e.getMessage());
             throw e;
@@ -46,6 +80,85 @@ public class TedTalkController {
         }
     }
 
+    /**
+     * Imports a raw {@code text/csv} body, optionally sent with {@code Content-Encoding: gzip}. Unlike the multipart
+     * upload nothing is stored first: rows are parsed while the body arrives, up to tedtalks.import.max-body-size.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<Map<String, String>> importCsvBody(HttpServletRequest request,
+                                                             @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                             @RequestParam(defaultValue = "insert") String mode) {
+        ImportMode importMode = ImportMode.of(mode);
+        boolean gzip = "gzip".equalsIgnoreCase(contentEncoding);
+        if (!gzip && contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding)) {
+            throw new BadRequestException("Invalid import parameters", List.of(Map.of("error", "Content-Encoding must be gzip or identity.")));
+        }
+        try {
+            ImportProgress progress = new ImportProgress();
+            int written = csvImportService.importCsvBody(request.getInputStream(), request.getContentLengthLong(), gzip,
+                    progress, importMode);
+            return importedResponse(written, progress, importMode);
+        } catch (BadRequestException e) {
+            log.error("CSV Import failed: {}", e.getMessage());
+            throw e;
+        } catch (IOException e) {
+            log.error("Error reading CSV body: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Failed to process CSV file"));
+        }
+    }
+
+    private static ResponseEntity<Map<String, String>> importedResponse(int written, ImportProgress progress, ImportMode mode) {
+        if (mode == ImportMode.INSERT) {
+            return ResponseEntity.ok(Map.of("message", "CSV file imported successfully"));
+        }
+        return ResponseEntity.ok(Map.of("message", "CSV file imported successfully",
+                "inserted", String.valueOf(written - progress.getRowsUpdated()),
+                "updated", String.valueOf(progress.getRowsUpdated()),
+                "unchanged", String.valueOf(progress.getRowsUnchanged())));
+    }
+
+    private ResponseEntity<Map<String, String>> submitImportJob(MultipartFile file, ImportMode mode) {
+        try {
+            ImportJob job = importJobService.submit(file, mode);
+            return ResponseEntity.accepted().body(Map.of("jobId", job.getId(), "status", job.getStatus().name()));
+        } catch (TaskRejectedException e) {
+            log.warn("CSV Import rejected, import queue is full");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", "Too many imports in progress, retry later"));
+        } catch (IOException e) {
+            log.error("Error storing CSV file: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Failed to process CSV file"));
+        }
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable String jobId) {
+        return importJobService.getJob(jobId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams every talk as NDJSON or CSV, optionally gzip-compressed, without buffering the response.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTalks(@RequestParam(defaultValue = "ndjson") String format,
+                                                             @RequestParam(defaultValue = "false") boolean gzip) {
+        TalkExportService.Format exportFormat = TalkExportService.Format.of(format);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tedtalks." + exportFormat.extension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    talkExportService.export(exportFormat, gzipOut);
+                }
+            } else {
+                talkExportService.export(exportFormat, out);
+            }
+        });
+    }
+
     @GetMapping
     public Page<TedTalk> getTedTalks(
             @RequestParam(defaultValue = "0") int page,
@@ -54,6 +167,22 @@ public class TedTalkController {
         return tedTalksService.getAllTedTalks(page, size, sort);
     }
 
+    @GetMapping(params = "paging=slice")
+    public Slice<TedTalk> getTedTalksSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "likes,desc") String sort) {
+        return tedTalksService.getTedTalksSlice(page, size, sort);
+    }
+
+    @GetMapping(params = "paging=keyset")
+    public TalkWindow scrollTedTalks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "likes,desc") String sort) {
+        return tedTalksService.scrollTedTalks(cursor, size, sort);
+    }
+
     @GetMapping("/author/{author}")
     public List<TedTalk> getTedTalksByAuthor(@PathVariable String author) {
         return tedTalksService.getTedTalksByAuthor(author);
@@ -64,6 +193,22 @@ public class TedTalkController {
         return tedTalksService.getTedTalksTalkPerYear(year);
     }
 
+    @GetMapping("/search")
+    public List<TedTalk> searchTalks(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return tedTalksService.searchTalks(q, limit);
+    }
+
+    @GetMapping("/authors")
+    public List<AuthorStats> getTopAuthors(@RequestParam(defaultValue = "influence") String sortBy,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return tedTalksService.getTopAuthors(sortBy, limit);
+    }
+
+    @GetMapping("/stats/years")
+    public List<YearSummary> getYearSummaries() {
+        return tedTalksService.getYearSummaries();
+    }
+
     @GetMapping("/most-influential/views")
     public TedTalk getMostInfluentialByViews() {
         return tedTalksService.getMostInfluentialByViews();
@@ -79,9 +224,11 @@ public class TedTalkController {
             @RequestParam(defaultValue = "0.4") BigDecimal viewsWeight,
             @RequestParam(defaultValue = "0.4") BigDecimal likesWeight,
             @RequestParam(defaultValue = "0.1") BigDecimal engagementWeight,
-            @RequestParam(defaultValue = "0.1") BigDecimal growthWeight
+            @RequestParam(defaultValue = "0.1") BigDecimal growthWeight,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int limit
     ) {
-        return tedTalksService.getAllTedTalksWithInfluenceScore(viewsWeight, likesWeight, engagementWeight, growthWeight);
+        return tedTalksService.getAllTedTalksWithInfluenceScore(viewsWeight, likesWeight, engagementWeight, growthWeight, page, limit);
     }
 
    @GetMapping("/most-influential")
@@ -1,5 +1,7 @@
 package com.tedtalks.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tedtalks.util.ContentHash;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -10,7 +12,13 @@ import java.math.BigInteger;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "ted_talks")
+@Table(name = "ted_talks", indexes = {
+        @Index(name = "idx_ted_talks_author", columnList = "author"),
+        @Index(name = "idx_ted_talks_date", columnList = "date"),
+        @Index(name = "idx_ted_talks_release_year", columnList = "release_year"),
+        @Index(name = "idx_ted_talks_views", columnList = "views"),
+        @Index(name = "idx_ted_talks_likes", columnList = "likes")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -28,7 +36,12 @@ public class TedTalk {
     @Column(name = "author", nullable = false)
     private String author;
 
-    //private int year;
+    /**
+     * Year of {@link #date}, stored so per-year queries are an index lookup instead of a date range scan.
+     */
+    @Column(name = "release_year", nullable = false)
+    private Integer year;
+
     @Column(name = "views", nullable = false)
     private BigInteger views;
 
@@ -42,6 +55,33 @@ public class TedTalk {
     @Column(name = "link", unique = true)
     private String link;
 
+    /**
+     * Likes / views * 100, stored at import since it does not change until the counts do.
+     */
+    @Column(name = "engagement_rate", precision = 38, scale = 5)
+    private BigDecimal engagementRate;
+
+    /**
+     * (Likes + views) / days since published, refreshed daily because it depends on the current date.
+     */
+    @Column(name = "growth_rate", precision = 38, scale = 5)
+    private BigDecimal growthRate;
+
+    /**
+     * {@link ContentHash} of views and likes; upsert imports skip rows whose hash is unchanged.
+     * Internal to imports, so not part of API responses.
+     */
+    @JsonIgnore
+    @Column(name = "content_hash")
+    private Long contentHash;
+
     @Transient
     private BigDecimal influenceScore;
+
+    @PrePersist
+    @PreUpdate
+    void syncDerivedColumns() {
+        year = date == null ? null : date.getYear();
+        contentHash = views == null || likes == null ? null : ContentHash.of(views, likes);
+    }
 }
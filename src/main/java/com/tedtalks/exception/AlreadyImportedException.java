@@ -0,0 +1,20 @@
+package com.tedtalks.exception;
+
+import java.time.Instant;
+
+/**
+ * The same CSV file was imported successfully within tedtalks.import.idempotency-window. Thrown after the file was
+ * read, so anything it wrote is rolled back and a retried upload leaves the catalog as the first one did.
+ */
+public class AlreadyImportedException extends RuntimeException {
+    private final Instant importedAt;
+
+    public AlreadyImportedException(Instant importedAt) {
+        super("CSV file was already imported");
+        this.importedAt = importedAt;
+    }
+
+    public Instant getImportedAt() {
+        return importedAt;
+    }
+}
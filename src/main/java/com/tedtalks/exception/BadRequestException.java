@@ -8,14 +8,26 @@ import java.util.Map;
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BadRequestException extends RuntimeException {
     private final List<Map<String, Object>> errors;
+    private final long errorCount;
 
     public BadRequestException(String message, List<Map<String, Object>> errors) {
+        this(message, errors, errors.size());
+    }
+
+    /**
+     * @param errorCount number of errors found, which may exceed the errors reported
+     */
+    public BadRequestException(String message, List<Map<String, Object>> errors, long errorCount) {
         super(message);
         this.errors = errors;
+        this.errorCount = errorCount;
     }
 
     public List<Map<String, Object>> getErrors() {
         return errors;
     }
-}
 
+    public long getErrorCount() {
+        return errorCount;
+    }
+}
@@ -1,13 +1,18 @@
 package com.tedtalks.exception;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
 
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -16,6 +21,42 @@ public class GlobalExceptionHandler {
         Map<String, Object> response = new HashMap<>();
         response.put("message", ex.getMessage());
         response.put("errors", ex.getErrors());
+        response.put("errorCount", ex.getErrorCount());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        log.warn("Rejected upload: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("message", ex.getMessage()));
+    }
+
+    /**
+     * A retried upload is answered like the import that already stored it.
+     */
+    @ExceptionHandler(AlreadyImportedException.class)
+    public ResponseEntity<Map<String, Object>> handleAlreadyImported(AlreadyImportedException ex) {
+        log.info("Skipped CSV import, the same file was imported at {}", ex.getImportedAt());
+        return ResponseEntity.ok(Map.of("message", ex.getMessage(), "importedAt", ex.getImportedAt().toString()));
+    }
+
+    @ExceptionHandler(ImportInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleImportInProgress(ImportInProgressException ex) {
+        log.warn("Rejected CSV import: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("message", ex.getMessage()));
+    }
+
+    /**
+     * No pooled connection became free within the Hikari connection timeout. With virtual threads there is no
+     * request thread limit in front of the pool, so a burst is answered with 503 instead of queueing without bound.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, Object>> handleConnectionUnavailable(Exception ex) {
+        log.warn("No database connection available: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", "Database is busy, retry later"));
+    }
+}
@@ -0,0 +1,15 @@
+package com.tedtalks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Another node held the import lease for longer than tedtalks.import.lease.wait.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ImportInProgressException extends RuntimeException {
+
+    public ImportInProgressException() {
+        super("Another import is in progress, retry later");
+    }
+}
@@ -0,0 +1,21 @@
+package com.tedtalks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * An upload went past the configured size limit. Thrown while the body streams, so nothing beyond the limit is read.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class PayloadTooLargeException extends RuntimeException {
+    private final long limit;
+
+    public PayloadTooLargeException(long limit) {
+        super("CSV upload exceeds the limit of " + limit + " bytes");
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
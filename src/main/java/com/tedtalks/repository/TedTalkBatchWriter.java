@@ -0,0 +1,105 @@
+package com.tedtalks.repository;
+
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.util.ContentHash;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Bulk insert path for imports.
+ *
+ * Hibernate disables JDBC insert batching for IDENTITY ids, so {@code saveAll} costs one round trip per row.
+ * This writer bypasses the persistence context and sends rows as JDBC batches, letting the database assign ids.
+ */
+@Timed("tedtalks.jdbc")
+@Repository
+public class TedTalkBatchWriter {
+    private static final String INSERT_SQL =
+            "INSERT INTO ted_talks (title, author, views, likes, date, release_year, link, engagement_rate, growth_rate, content_hash)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * Inserts new links and updates the counts of existing ones whose content hash differs; title, author and
+     * date of a stored talk are left as they are. Parameters are in the same order as {@link #INSERT_SQL}.
+     */
+    private static final String MERGE_SQL =
+            "MERGE INTO ted_talks t USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)),"
+                    + " CAST(? AS NUMERIC(38)), CAST(? AS NUMERIC(38)), CAST(? AS DATE), CAST(? AS INTEGER),"
+                    + " CAST(? AS VARCHAR(255)), CAST(? AS NUMERIC(38, 5)), CAST(? AS NUMERIC(38, 5)), CAST(? AS BIGINT)))"
+                    + " AS s (title, author, views, likes, date, release_year, link, engagement_rate, growth_rate, content_hash)"
+                    + " ON t.link = s.link"
+                    + " WHEN MATCHED AND t.content_hash IS DISTINCT FROM s.content_hash THEN UPDATE SET"
+                    + " views = s.views, likes = s.likes, engagement_rate = s.engagement_rate,"
+                    + " growth_rate = s.growth_rate, content_hash = s.content_hash"
+                    + " WHEN NOT MATCHED THEN INSERT"
+                    + " (title, author, views, likes, date, release_year, link, engagement_rate, growth_rate, content_hash)"
+                    + " VALUES (s.title, s.author, s.views, s.likes, s.date, s.release_year, s.link, s.engagement_rate,"
+                    + " s.growth_rate, s.content_hash)";
+    /**
+     * Same rounding as {@code TedTalksService.calculateEngagementRate}: likes / views to 5 places, HALF_UP, times 100.
+     * Dividing NUMERIC(38) columns keeps enough digits that rounding the quotient is exact.
+     */
+    private static final String ENGAGEMENT_RATE_SQL = "CASE WHEN views = 0 THEN 0 ELSE ROUND(likes / views, 5) * 100 END";
+    /**
+     * Same as {@code TedTalksService.calculateGrowthRate}, with days since published as max(1, whole months * 30).
+     * Parameters: today's year * 12 + month, then today's day of month.
+     */
+    private static final String GROWTH_RATE_SQL = "CASE WHEN views = 0 OR likes = 0 THEN 0 ELSE ROUND((views + likes)"
+            + " / CAST(GREATEST(1, 30 * (? - EXTRACT(YEAR FROM date) * 12 - EXTRACT(MONTH FROM date)"
+            + " - CASE WHEN ? < EXTRACT(DAY FROM date) THEN 1 ELSE 0 END)) AS NUMERIC(38)), 5) END";
+    private static final String REFRESH_SCORE_COMPONENTS_SQL =
+            "UPDATE ted_talks SET engagement_rate = " + ENGAGEMENT_RATE_SQL + ", growth_rate = " + GROWTH_RATE_SQL
+                    + " WHERE engagement_rate IS DISTINCT FROM " + ENGAGEMENT_RATE_SQL
+                    + " OR growth_rate IS DISTINCT FROM " + GROWTH_RATE_SQL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TedTalkBatchWriter(JdbcTemplate jdbcTemplate, @Value("${tedtalks.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insertAll(List<TedTalk> talks) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, talks, batchSize, TedTalkBatchWriter::setRow);
+    }
+
+    /**
+     * Upserts the talks keyed on link, in JDBC batches of one MERGE statement per row.
+     */
+    public void mergeAll(List<TedTalk> talks) {
+        jdbcTemplate.batchUpdate(MERGE_SQL, talks, batchSize, TedTalkBatchWriter::setRow);
+    }
+
+    private static void setRow(PreparedStatement ps, TedTalk talk) throws SQLException {
+        ps.setString(1, talk.getTitle());
+        ps.setString(2, talk.getAuthor());
+        ps.setBigDecimal(3, new BigDecimal(talk.getViews()));
+        ps.setBigDecimal(4, new BigDecimal(talk.getLikes()));
+        ps.setObject(5, talk.getDate());
+        ps.setInt(6, talk.getDate().getYear());
+        ps.setString(7, talk.getLink());
+        ps.setBigDecimal(8, talk.getEngagementRate());
+        ps.setBigDecimal(9, talk.getGrowthRate());
+        ps.setLong(10, ContentHash.of(talk.getViews(), talk.getLikes()));
+    }
+
+    /**
+     * Recomputes the stored engagement and growth rates as of today in one statement, writing only rows whose
+     * value changed.
+     *
+     * @return number of talks updated
+     */
+    public int refreshScoreComponents(LocalDate today) {
+        long todayMonth = today.getYear() * 12L + today.getMonthValue();
+        return jdbcTemplate.update(REFRESH_SCORE_COMPONENTS_SQL, todayMonth, today.getDayOfMonth(),
+                todayMonth, today.getDayOfMonth());
+    }
+}
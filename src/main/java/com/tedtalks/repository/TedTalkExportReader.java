@@ -0,0 +1,56 @@
+package com.tedtalks.repository;
+
+import com.tedtalks.entity.TedTalk;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only read of the whole catalog for exports.
+ *
+ * Rows are fetched {@code fetchSize} at a time and handed over one by one as detached talks, bypassing the
+ * persistence context, so memory use does not depend on the number of rows.
+ */
+@Timed("tedtalks.jdbc")
+@Repository
+public class TedTalkExportReader {
+    private static final String SELECT_SQL =
+            "SELECT id, title, author, views, likes, date, release_year, link, engagement_rate, growth_rate FROM ted_talks ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public TedTalkExportReader(JdbcTemplate jdbcTemplate, @Value("${tedtalks.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Calls action for every talk in id order.
+     */
+    public void forEach(Consumer<TedTalk> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> action.accept(TedTalk.builder()
+                .id(rs.getLong(1))
+                .title(rs.getString(2))
+                .author(rs.getString(3))
+                .views(rs.getBigDecimal(4).toBigIntegerExact())
+                .likes(rs.getBigDecimal(5).toBigIntegerExact())
+                .date(rs.getObject(6, LocalDate.class))
+                .year(rs.getInt(7))
+                .link(rs.getString(8))
+                .engagementRate(rs.getBigDecimal(9))
+                .growthRate(rs.getBigDecimal(10))
+                .build()));
+    }
+}
@@ -3,19 +3,76 @@ package com.tedtalks.repository;
 import com.tedtalks.entity.TedTalk;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
-public interface TedTalksRepository extends JpaRepository<TedTalk, Long> {
+public interface TedTalksRepository extends JpaRepository<TedTalk, Long>, JpaSpecificationExecutor<TedTalk> {
 
     List<TedTalk> findByAuthor(String author);
 
+    List<TedTalk> findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(String title, String author, Pageable pageable);
+
     List<TedTalk> findTop1ByOrderByViewsDesc();
 
     List<TedTalk> findTop1ByOrderByLikesDesc();
 
     List<TedTalk> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
+    List<TedTalk> findByYear(Integer year);
+
+    List<TedTalk> findTop1ByYearOrderByViewsDescIdAsc(Integer year);
+
+    List<TedTalk> findTop1ByYearOrderByLikesDescIdAsc(Integer year);
+
+    /**
+     * Year, talk count, total views and total likes per year, oldest year first.
+     */
+    @Query("select t.year, count(t), sum(t.views), sum(t.likes) from TedTalk t group by t.year order by t.year")
+    List<Object[]> summarizeByYear();
+
+    /**
+     * Author, talk count, total views, total likes and summed influence score (from the stored rates) per author.
+     */
+    @Query("select t.author, count(t), sum(t.views), sum(t.likes), sum(cast(t.views as BigDecimal) * :viewsWeight"
+            + " + cast(t.likes as BigDecimal) * :likesWeight + coalesce(t.engagementRate, 0) * :engagementWeight"
+            + " + coalesce(t.growthRate, 0) * :growthWeight) from TedTalk t group by t.author")
+    List<Object[]> summarizeByAuthor(@Param("viewsWeight") BigDecimal viewsWeight, @Param("likesWeight") BigDecimal likesWeight,
+                                     @Param("engagementWeight") BigDecimal engagementWeight, @Param("growthWeight") BigDecimal growthWeight);
+
     Page<TedTalk> findAll(Pageable pageable);
+
+    Slice<TedTalk> findSliceBy(Pageable pageable);
+
+    /**
+     * Ranks talks by influence score using the stored engagement and growth rates, best first.
+     */
+    @Query("select t from TedTalk t order by (cast(t.views as BigDecimal) * :viewsWeight + cast(t.likes as BigDecimal) * :likesWeight"
+            + " + coalesce(t.engagementRate, 0) * :engagementWeight + coalesce(t.growthRate, 0) * :growthWeight) desc, t.id")
+    List<TedTalk> findAllOrderByInfluenceScore(@Param("viewsWeight") BigDecimal viewsWeight, @Param("likesWeight") BigDecimal likesWeight,
+                                               @Param("engagementWeight") BigDecimal engagementWeight, @Param("growthWeight") BigDecimal growthWeight,
+                                               Pageable pageable);
+
+    @Query("select t from TedTalk t where t.year = :year order by (cast(t.views as BigDecimal) * :viewsWeight + cast(t.likes as BigDecimal) * :likesWeight"
+            + " + coalesce(t.engagementRate, 0) * :engagementWeight + coalesce(t.growthRate, 0) * :growthWeight) desc, t.id")
+    List<TedTalk> findByYearOrderByInfluenceScore(@Param("year") Integer year,
+                                                  @Param("viewsWeight") BigDecimal viewsWeight, @Param("likesWeight") BigDecimal likesWeight,
+                                                  @Param("engagementWeight") BigDecimal engagementWeight, @Param("growthWeight") BigDecimal growthWeight,
+                                                  Pageable pageable);
+
+    @Query("select t.link from TedTalk t where t.link in :links")
+    Set<String> findExistingLinks(@Param("links") Collection<String> links);
+
+    /**
+     * Link and content hash of the stored talks among the given links.
+     */
+    @Query("select t.link, t.contentHash from TedTalk t where t.link in :links")
+    List<Object[]> findContentHashes(@Param("links") Collection<String> links);
 }
@@ -0,0 +1,67 @@
+package com.tedtalks.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps this node's column store, search index, leaderboards and caches in step with imports committed by other
+ * nodes. Polls the catalog version every tedtalks.catalog.version-poll-interval and, when it moved, publishes a
+ * {@link TalksImportedEvent} as a local import would, so the usual listeners append or rebuild.
+ * Imports on this node advance the version they committed themselves and cause no second refresh.
+ */
+@Slf4j
+@Service
+public class CatalogVersionWatcher {
+    private final ImportCoordinator importCoordinator;
+    private final ApplicationEventPublisher eventPublisher;
+    private ImportCoordinator.CatalogVersion seen;
+
+    public CatalogVersionWatcher(ImportCoordinator importCoordinator, ApplicationEventPublisher eventPublisher) {
+        this.importCoordinator = importCoordinator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Runs before the stores load, so imports committed while they load are picked up by the next poll.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        seen = importCoordinator.catalogVersion();
+    }
+
+    /**
+     * @return true if another node changed the catalog since the last poll
+     */
+    @Scheduled(fixedDelayString = "${tedtalks.catalog.version-poll-interval:PT5S}",
+            initialDelayString = "${tedtalks.catalog.version-poll-interval:PT5S}")
+    public synchronized boolean poll() {
+        if (seen == null) {
+            return false;
+        }
+        ImportCoordinator.CatalogVersion current = importCoordinator.catalogVersion();
+        if (current.version() == seen.version()) {
+            return false;
+        }
+        boolean rewritten = current.rewrites() != seen.rewrites();
+        log.info("Catalog changed on another node (version {} -> {}), refreshing", seen.version(), current.version());
+        seen = current;
+        eventPublisher.publishEvent(new TalksImportedEvent(0, rewritten ? 1 : 0, current.version()));
+        return true;
+    }
+
+    /**
+     * Marks a local import as seen if no other node imported since the last poll; otherwise the next poll refreshes,
+     * rebuilding if any of those imports changed stored talks.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTalksImported(TalksImportedEvent event) {
+        if (seen != null && event.catalogVersion() == seen.version() + 1) {
+            seen = new ImportCoordinator.CatalogVersion(event.catalogVersion(),
+                    seen.rewrites() + (event.rowsUpdated() > 0 ? 1 : 0));
+        }
+    }
+}
@@ -1,89 +1,426 @@
 package com.tedtalks.service;
 
 import com.tedtalks.entity.TedTalk;
+import com.tedtalks.exception.AlreadyImportedException;
 import com.tedtalks.exception.BadRequestException;
+import com.tedtalks.exception.PayloadTooLargeException;
+import com.tedtalks.repository.TedTalkBatchWriter;
 import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.util.ContentHash;
+import com.tedtalks.util.CsvErrorList;
 import com.tedtalks.util.CsvValidator;
+import com.tedtalks.util.LimitedInputStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
 
 @Slf4j
 @Service
 public class CsvImportService {
+    /**
+     * Counts with up to this many digits fit in a long and skip the {@link BigInteger} string parser.
+     */
+    private static final int LONG_SAFE_DIGITS = 18;
+
     private final TedTalksRepository tedTalksRepository;
     private final TedTalksService tedTalksService;
+    private final TedTalkBatchWriter tedTalkBatchWriter;
+    private final int chunkSize;
+    private final Executor parseExecutor;
+    private final int maxChunksInFlight;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImportMetrics metrics;
+    private final int maxReportedErrors;
+    private final long maxBodySize;
+    private final ImportCoordinator importCoordinator;
 
-    public CsvImportService(TedTalksRepository tedTalksRepository, TedTalksService tedTalksService) {
+    public CsvImportService(TedTalksRepository tedTalksRepository, TedTalksService tedTalksService,
+                            TedTalkBatchWriter tedTalkBatchWriter, @Value("${tedtalks.import.chunk-size:1000}") int chunkSize,
+                            @Qualifier("csvParseExecutor") Executor csvParseExecutor,
+                            @Value("${tedtalks.import.parallelism:1}") int parallelism,
+                            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                            @Value("${tedtalks.import.max-reported-errors:1000}") int maxReportedErrors,
+                            @Value("${tedtalks.import.max-body-size:2GB}") DataSize maxBodySize,
+                            ImportCoordinator importCoordinator) {
         this.tedTalksRepository = tedTalksRepository;
         this.tedTalksService = tedTalksService;
+        this.tedTalkBatchWriter = tedTalkBatchWriter;
+        this.chunkSize = chunkSize;
+        // With a single thread, parse on the calling thread and apply each chunk as soon as it is read
+        this.parseExecutor = parallelism > 1 ? csvParseExecutor : Runnable::run;
+        this.maxChunksInFlight = parallelism > 1 ? 2 * parallelism : 1;
+        this.eventPublisher = eventPublisher;
+        this.metrics = new ImportMetrics(meterRegistry);
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxBodySize = maxBodySize.toBytes();
+        this.importCoordinator = importCoordinator;
     }
 
-    public void importCsv(MultipartFile file) throws IOException {
-        // Fetch all existing TED Talk links to avoid duplicate DB calls
-        Set<String> existingLinks = tedTalksRepository.findAll().stream()
-                .map(TedTalk::getLink)
-                .collect(Collectors.toSet());
+    @Transactional
+    public int importCsv(MultipartFile file) throws IOException {
+        return importCsv(file, new ImportProgress(), ImportMode.INSERT);
+    }
 
-        // Step 1: Validate CSV file before proceeding
-        List<Map<String, Object>> errors = CsvValidator.validateCsv(file, existingLinks);
-        if (!errors.isEmpty()) {
-            log.error("CSV Validation Failed");
-            throw new BadRequestException("CSV Validation Failed", errors);
+    @Transactional
+    public int importCsv(MultipartFile file, ImportProgress progress, ImportMode mode) throws IOException {
+        try (InputStream inputStream = file.getInputStream()) {
+            return importCsv(inputStream, progress, mode);
         }
+    }
 
-        // Step 2: Import Data (Since validation passed)
-        List<TedTalk> tedTalks = processCsv(file);
-        tedTalksRepository.saveAll(tedTalks);
-        log.info("{} TED Talks imported successfully!", tedTalks.size());
+    /**
+     * Imports a raw CSV request body while it is still arriving, inflating it first when gzip-encoded.
+     * The limit applies to the CSV after inflating, so a small compressed body cannot expand without bound,
+     * and a declared Content-Length over the limit is rejected before anything is read.
+     * Rows are read only as fast as chunks are written; the unread rest of the upload stays in the socket,
+     * where TCP flow control slows the client down.
+     *
+     * @param contentLength declared body length, or -1 if unknown
+     * @throws BadRequestException if a gzip body is corrupt or truncated, wherever the damage is
+     */
+    @Transactional
+    public int importCsvBody(InputStream body, long contentLength, boolean gzip, ImportProgress progress,
+                             ImportMode mode) throws IOException {
+        if (contentLength > maxBodySize) {
+            throw new PayloadTooLargeException(maxBodySize);
+        }
+        try {
+            InputStream csv = gzip ? new GZIPInputStream(body, 64 * 1024) : body;
+            return importCsv(new LimitedInputStream(csv, maxBodySize), progress, mode);
+        } catch (IllegalStateException e) {
+            // The CSV record iterator wraps read failures, including those of the inflater
+            if (gzip && isCorruptGzip(e.getCause())) {
+                throw invalidGzip(e.getCause());
+            }
+            throw e;
+        } catch (ZipException | EOFException e) {
+            if (gzip) {
+                throw invalidGzip(e);
+            }
+            throw e;
+        }
     }
 
-    public List<TedTalk> processCsv(MultipartFile file) throws IOException {
-        List<TedTalk> tedTalks = new ArrayList<>();
+    private static boolean isCorruptGzip(Throwable cause) {
+        return cause instanceof ZipException || cause instanceof EOFException;
+    }
+
+    private static BadRequestException invalidGzip(Throwable cause) {
+        log.error("CSV Import failed, body is not valid gzip: {}", cause.toString());
+        return new BadRequestException("Request body is not valid gzip", List.of(Map.of("error", String.valueOf(cause.getMessage()))));
+    }
 
-        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
-             CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader().withIgnoreHeaderCase().withTrim().withAllowMissingColumnNames())) {
+    @Transactional
+    public int importCsv(InputStream inputStream, ImportProgress progress) throws IOException {
+        return importCsv(inputStream, progress, ImportMode.INSERT);
+    }
+
+    /**
+     * Validates and saves the CSV in a single pass, writing valid rows in chunks of {@code chunkSize}.
+     * Any validation error stops further writes and rolls back the chunks already flushed,
+     * so the file is still imported all-or-nothing. Only the first {@code maxReportedErrors} errors are
+     * reported; the exception carries the total count.
+     *
+     * Runs under the {@link ImportCoordinator} lease, so imports on other nodes wait for this one to commit. The file
+     * is hashed while it is read; if the same file was already imported, whatever this run wrote is rolled back.
+     *
+     * @return number of talks written; for {@link ImportMode#UPSERT} this excludes unchanged rows,
+     * which are counted in progress
+     * @throws AlreadyImportedException if the file was imported within tedtalks.import.idempotency-window
+     */
+    @Transactional
+    public int importCsv(InputStream inputStream, ImportProgress progress, ImportMode mode) throws IOException {
+        try (ImportCoordinator.Lease lease = importCoordinator.acquireLease()) {
+            Timer.Sample sample = metrics.start();
+            CsvErrorList errors = new CsvErrorList(maxReportedErrors);
+            Consumer<List<TedTalk>> chunkWriter = mode == ImportMode.UPSERT ? tedTalkBatchWriter::mergeAll : tedTalkBatchWriter::insertAll;
+            MessageDigest digest = sha256();
+            int imported;
+            try {
+                imported = processCsv(new DigestInputStream(inputStream, digest), errors, progress, mode, chunkWriter,
+                        lease::renewIfDue);
+            } catch (BadRequestException e) {
+                metrics.failed(sample, progress.getRowsFailed(), e.getErrors());
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                metrics.failed(sample, progress.getRowsFailed(), List.of());
+                throw e;
+            }
+            // Checked before the errors, since replaying an insert reports every row as a duplicate
+            String fileHash = HexFormat.of().formatHex(digest.digest());
+            Optional<Instant> importedAt = importCoordinator.findRecentImport(fileHash);
+            if (importedAt.isPresent()) {
+                log.info("CSV file {} was already imported at {}, rolling back", fileHash, importedAt.get());
+                throw new AlreadyImportedException(importedAt.get());
+            }
+            if (!errors.isEmpty()) {
+                log.error("CSV Validation Failed");
+                metrics.failed(sample, progress.getRowsFailed(), errors);
+                throw new BadRequestException("CSV Validation Failed", errors, errors.totalCount());
+            }
+            long catalogVersion = importCoordinator.recordImport(fileHash, mode, imported, progress.getRowsUpdated(),
+                    progress.getRowsUnchanged());
+            metrics.succeeded(sample, imported, progress.getRowsUpdated(), progress.getRowsUnchanged());
+            if (mode == ImportMode.UPSERT) {
+                log.info("{} TED Talks upserted successfully, {} of them updated and {} unchanged rows skipped!",
+                        imported, progress.getRowsUpdated(), progress.getRowsUnchanged());
+            } else {
+                log.info("{} TED Talks imported successfully!", imported);
+            }
+            eventPublisher.publishEvent(new TalksImportedEvent(imported, (int) progress.getRowsUpdated(), catalogVersion));
+            return imported;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Streams the CSV once, validating every row and handing valid rows to chunkWriter in chunks.
+     * Once a row fails validation no further chunks are written, but the remaining rows are still
+     * validated so that every error is reported.
+     *
+     * With {@code parallelism > 1}, the row-local work (number and date parsing, mapping) of up to
+     * {@code 2 * parallelism} chunks runs on the parse executor while this thread keeps reading.
+     * Chunks are then applied strictly in file order, so duplicate-link checks, row numbers and
+     * error order are the same as in a sequential import.
+     *
+     * @return number of rows handed to chunkWriter
+     */
+    public int processCsv(InputStream inputStream, List<Map<String, Object>> errors, ImportProgress progress,
+                          Consumer<List<TedTalk>> chunkWriter) throws IOException {
+        return processCsv(inputStream, errors, progress, ImportMode.INSERT, chunkWriter);
+    }
+
+    /**
+     * As {@link #processCsv(InputStream, List, ImportProgress, Consumer)}. With {@link ImportMode#UPSERT} stored
+     * links are not errors; rows whose content hash matches the stored one are skipped instead of handed to
+     * chunkWriter.
+     */
+    public int processCsv(InputStream inputStream, List<Map<String, Object>> errors, ImportProgress progress,
+                          ImportMode mode, Consumer<List<TedTalk>> chunkWriter) throws IOException {
+        return processCsv(inputStream, errors, progress, mode, chunkWriter, () -> { });
+    }
+
+    /**
+     * As {@link #processCsv(InputStream, List, ImportProgress, ImportMode, Consumer)}, running beforeChunk before
+     * each chunk is applied, whether or not it writes anything. Imports renew their lease there, so a long run of
+     * invalid or unchanged rows cannot outlast it.
+     */
+    private int processCsv(InputStream inputStream, List<Map<String, Object>> errors, ImportProgress progress,
+                           ImportMode mode, Consumer<List<TedTalk>> chunkWriter, Runnable beforeChunk) throws IOException {
+        Set<String> linksInCsvFile = new HashSet<>();
+        Deque<CompletableFuture<List<ParsedRow>>> inFlight = new ArrayDeque<>();
+        List<CSVRecord> records = new ArrayList<>(chunkSize);
+        int written = 0;
+
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+             CSVParser csvParser = CsvValidator.openParser(reader)) {
 
             for (CSVRecord record : csvParser) {
-                TedTalk talk = mapRecordToTedTalk(record);
-                if (talk != null) {
-                    tedTalks.add(talk);
+                records.add(record);
+                if (records.size() >= chunkSize) {
+                    inFlight.add(submitChunk(records));
+                    records = new ArrayList<>(chunkSize);
+                    while (inFlight.size() >= maxChunksInFlight) {
+                        written += applyChunk(await(inFlight.poll()), errors, linksInCsvFile, progress, mode,
+                                chunkWriter, beforeChunk);
+                    }
                 }
             }
+            if (!records.isEmpty()) {
+                inFlight.add(submitChunk(records));
+            }
+            while (!inFlight.isEmpty()) {
+                written += applyChunk(await(inFlight.poll()), errors, linksInCsvFile, progress, mode, chunkWriter,
+                        beforeChunk);
+            }
         }
-        log.info("{} TED Talks successfully processed for import.", tedTalks.size());
-        return tedTalks;
+        log.info("{} TED Talks successfully processed for import.", written);
+        return written;
     }
 
-    private TedTalk mapRecordToTedTalk(CSVRecord record) {
+    private CompletableFuture<List<ParsedRow>> submitChunk(List<CSVRecord> records) {
+        return CompletableFuture.supplyAsync(() -> metrics.parse.record(() -> parseChunk(records)), parseExecutor);
+    }
+
+    private static List<ParsedRow> await(CompletableFuture<List<ParsedRow>> future) {
         try {
-            BigInteger views = new BigInteger(record.get("views").trim());
-            BigInteger likes = new BigInteger(record.get("likes").trim());
-            LocalDate date= LocalDate.parse(record.get("date") + " 01", DateTimeFormatter.ofPattern("MMMM yyyy dd", Locale.ENGLISH));
-
-            return TedTalk.builder()
-                    .title(record.get("title").trim())
-                    .author(record.get("author").trim())
-                    .views(views)
-                    .likes(likes)
-                    .date(date)
-                    .link(record.get("link").trim())
-                    .build();
-        } catch (Exception e) {
-            log.error("Skipping invalid row: {} | Error: {}", record.toString(), e.getMessage());
-            return null;
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Row-local checks and mapping; touches no shared state so chunks can be parsed concurrently.
+     */
+    private List<ParsedRow> parseChunk(List<CSVRecord> records) {
+        List<ParsedRow> rows = new ArrayList<>(records.size());
+        List<Map<String, Object>> fieldErrors = new ArrayList<>();
+        for (CSVRecord record : records) {
+            int rowNum = (int) record.getRecordNumber() + CsvValidator.FIRST_DATA_ROW - 1;
+            if (!CsvValidator.isValidRecord(record)) {
+                rows.add(new ParsedRow(rowNum, null, List.of(), null));
+                continue;
+            }
+            CsvValidator.validateFields(record, rowNum, fieldErrors);
+            if (fieldErrors.isEmpty()) {
+                rows.add(new ParsedRow(rowNum, record.get("link").trim(), List.of(), mapRecordToTedTalk(record)));
+            } else {
+                rows.add(new ParsedRow(rowNum, record.get("link").trim(), List.copyOf(fieldErrors), null));
+                fieldErrors.clear();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Applies the order-dependent checks to a parsed chunk and writes it if the file is still error free.
+     * Errors are reported in the same order as {@link CsvValidator#validateRow}.
+     */
+    private int applyChunk(List<ParsedRow> rows, List<Map<String, Object>> errors, Set<String> linksInCsvFile,
+                           ImportProgress progress, ImportMode mode, Consumer<List<TedTalk>> chunkWriter,
+                           Runnable beforeChunk) {
+        beforeChunk.run();
+        boolean upsert = mode == ImportMode.UPSERT;
+        Map<String, Long> storedHashes = upsert ? metrics.linkLookup.record(() -> findContentHashes(rows)) : Map.of();
+        Set<String> existingLinks = upsert ? Set.of() : metrics.linkLookup.record(() -> findExistingLinks(rows));
+        Timer.Sample validation = metrics.start();
+        List<TedTalk> talks = new ArrayList<>(rows.size());
+        int failed = 0;
+        int updated = 0;
+        int unchanged = 0;
+        for (ParsedRow row : rows) {
+            if (row.link() == null) {
+                errors.add(CsvValidator.missingFieldsError(row.rowNum()));
+                failed++;
+            } else if (!CsvValidator.validateLink(row.link(), row.rowNum(), errors, existingLinks, linksInCsvFile)) {
+                failed++;
+            } else if (!row.fieldErrors().isEmpty()) {
+                errors.addAll(row.fieldErrors());
+                failed++;
+            } else if (errors.isEmpty()) {
+                if (storedHashes.containsKey(row.link())) {
+                    Long storedHash = storedHashes.get(row.link());
+                    if (storedHash != null && storedHash == ContentHash.of(row.talk().getViews(), row.talk().getLikes())) {
+                        unchanged++;
+                        continue;
+                    }
+                    updated++;
+                }
+                talks.add(row.talk());
+            }
+        }
+        validation.stop(metrics.validate);
+        progress.chunkProcessed(rows.size(), failed);
+        if (!errors.isEmpty()) {
+            return 0;
+        }
+        progress.chunkMerged(updated, unchanged);
+        if (talks.isEmpty()) {
+            return 0;
         }
+        metrics.save.record(() -> chunkWriter.accept(talks));
+        return talks.size();
+    }
+
+    /**
+     * Looks up which links of this chunk are already stored, using the unique index on link
+     * instead of loading the whole table.
+     */
+    private Set<String> findExistingLinks(List<ParsedRow> rows) {
+        List<String> links = linksOf(rows);
+        return links.isEmpty() ? Set.of() : tedTalksRepository.findExistingLinks(links);
+    }
+
+    /**
+     * Content hash by link for the stored links of this chunk, through the same index lookup as
+     * {@link #findExistingLinks}. The hash is null for talks stored before hashes were kept.
+     */
+    private Map<String, Long> findContentHashes(List<ParsedRow> rows) {
+        List<String> links = linksOf(rows);
+        if (links.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> hashes = new HashMap<>();
+        for (Object[] row : tedTalksRepository.findContentHashes(links)) {
+            hashes.put((String) row[0], (Long) row[1]);
+        }
+        return hashes;
+    }
+
+    private static List<String> linksOf(List<ParsedRow> rows) {
+        return rows.stream()
+                .map(ParsedRow::link)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private TedTalk mapRecordToTedTalk(CSVRecord record) {
+        BigInteger views = parseCount(record.get("views"));
+        BigInteger likes = parseCount(record.get("likes"));
+        LocalDate date = CsvValidator.parseMonthYear(record.get("date"));
+
+        return tedTalksService.applyScoreComponents(TedTalk.builder()
+                .title(record.get("title").trim())
+                .author(record.get("author").trim())
+                .views(views)
+                .likes(likes)
+                .date(date)
+                .link(record.get("link").trim())
+                .build());
+    }
+
+    /**
+     * Parses a count that passed validation.
+     */
+    private static BigInteger parseCount(String value) {
+        String digits = value.trim();
+        return digits.length() <= LONG_SAFE_DIGITS ? BigInteger.valueOf(Long.parseLong(digits)) : new BigInteger(digits);
+    }
+
+    /**
+     * Outcome of the row-local checks; link is null when required fields are missing,
+     * talk is null when the row has field errors.
+     */
+    private record ParsedRow(int rowNum, String link, List<Map<String, Object>> fieldErrors, TedTalk talk) {
     }
-}
\ No newline at end of file
+}
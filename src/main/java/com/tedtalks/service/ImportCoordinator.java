@@ -0,0 +1,218 @@
+package com.tedtalks.service;
+
+import com.tedtalks.exception.ImportInProgressException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Coordinates CSV imports between application nodes sharing one database:
+ * <ul>
+ *     <li>an import lease, so only one node imports at a time. Duplicate links are checked against committed talks,
+ *     so two concurrent imports could both accept the same link and one would fail on the unique index.</li>
+ *     <li>imported files by SHA-256, so a retried upload is answered as already imported instead of written again</li>
+ *     <li>the catalog version, bumped by every import that wrote talks and polled by {@link CatalogVersionWatcher}</li>
+ * </ul>
+ *
+ * The lease is a row with an expiry rather than a row lock held by the import transaction: waiting for it does not
+ * depend on the database's lock timeout, and a node that dies mid-import blocks others for at most the lease duration.
+ * Lease changes commit in their own transaction so other nodes see them while the import is still running.
+ * Expiry compares the nodes' clocks, which must agree to well within the lease duration.
+ */
+@Slf4j
+@Service
+public class ImportCoordinator {
+    private static final String LEASE_NAME = "csv-import";
+    private static final Duration RETRY_INTERVAL = Duration.ofMillis(200);
+    private static final String ACQUIRE_SQL =
+            "UPDATE import_lease SET owner = ?, expires_at = ? WHERE name = ? AND (owner IS NULL OR expires_at < ?)";
+    private static final String RENEW_SQL = "UPDATE import_lease SET expires_at = ? WHERE name = ? AND owner = ?";
+    private static final String RELEASE_SQL = "UPDATE import_lease SET owner = NULL, expires_at = NULL WHERE name = ? AND owner = ?";
+    private static final String FIND_IMPORT_SQL = "SELECT imported_at FROM import_batches WHERE file_hash = ? AND imported_at >= ?";
+    private static final String UPDATE_IMPORT_SQL = "UPDATE import_batches SET import_mode = ?, rows_written = ?,"
+            + " rows_updated = ?, rows_unchanged = ?, imported_at = ? WHERE file_hash = ?";
+    private static final String INSERT_IMPORT_SQL = "INSERT INTO import_batches (import_mode, rows_written, rows_updated,"
+            + " rows_unchanged, imported_at, file_hash) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String BUMP_VERSION_SQL =
+            "UPDATE catalog_version SET version = version + 1, rewrites = rewrites + ? WHERE id = 1";
+    private static final String VERSION_SQL = "SELECT version, rewrites FROM catalog_version WHERE id = 1";
+    private static final String CLAIM_SCORE_REFRESH_SQL = "UPDATE catalog_version SET scores_refreshed_on = ?"
+            + " WHERE id = 1 AND (scores_refreshed_on IS NULL OR scores_refreshed_on < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Duration leaseDuration;
+    private final Duration leaseWait;
+    private final Duration idempotencyWindow;
+
+    public ImportCoordinator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             @Value("${tedtalks.import.lease.duration:PT10M}") Duration leaseDuration,
+                             @Value("${tedtalks.import.lease.wait:PT30S}") Duration leaseWait,
+                             @Value("${tedtalks.import.idempotency-window:PT24H}") Duration idempotencyWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.leaseDuration = leaseDuration;
+        this.leaseWait = leaseWait;
+        this.idempotencyWindow = idempotencyWindow;
+    }
+
+    /**
+     * Catalog version and how many of its imports changed stored talks rather than only appending new ones.
+     */
+    public record CatalogVersion(long version, long rewrites) {
+    }
+
+    /**
+     * Takes the import lease, waiting up to tedtalks.import.lease.wait while another import holds it. Inside a
+     * transaction the lease is released once that transaction completes, so the next import validates against the
+     * committed talks; without one it is released on close.
+     *
+     * @throws ImportInProgressException if the lease did not become free in time
+     */
+    public Lease acquireLease() {
+        Lease lease = new Lease(UUID.randomUUID().toString());
+        Instant deadline = Instant.now().plus(leaseWait);
+        while (!lease.tryAcquire()) {
+            if (!Instant.now().isBefore(deadline)) {
+                throw new ImportInProgressException();
+            }
+            try {
+                Thread.sleep(RETRY_INTERVAL.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ImportInProgressException();
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            lease.releaseOnClose = false;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lease.release();
+                }
+            });
+        }
+        return lease;
+    }
+
+    /**
+     * When the file with this hash was last imported, if that is within tedtalks.import.idempotency-window.
+     */
+    public Optional<Instant> findRecentImport(String fileHash) {
+        Timestamp since = Timestamp.from(Instant.now().minus(idempotencyWindow));
+        return jdbcTemplate.query(FIND_IMPORT_SQL, (rs, rowNum) -> rs.getTimestamp(1).toInstant(), fileHash, since)
+                .stream().findFirst();
+    }
+
+    /**
+     * Records a successful import in the import transaction and, if it wrote talks, bumps the catalog version.
+     *
+     * @return the new catalog version, or 0 if the import wrote nothing
+     */
+    public long recordImport(String fileHash, ImportMode mode, int written, long updated, long unchanged) {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (jdbcTemplate.update(UPDATE_IMPORT_SQL, mode.name(), written, updated, unchanged, now, fileHash) == 0) {
+            jdbcTemplate.update(INSERT_IMPORT_SQL, mode.name(), written, updated, unchanged, now, fileHash);
+        }
+        if (written == 0) {
+            return 0;
+        }
+        jdbcTemplate.update(BUMP_VERSION_SQL, updated > 0 ? 1 : 0);
+        return catalogVersion().version();
+    }
+
+    /**
+     * Bumps the catalog version for a change made outside an import, so every node clears its caches.
+     *
+     * @return the new catalog version
+     */
+    public long bumpCatalogVersion() {
+        jdbcTemplate.update(BUMP_VERSION_SQL, 0);
+        return catalogVersion().version();
+    }
+
+    /**
+     * Records that the stored score components are being refreshed today, in the caller's transaction.
+     *
+     * @return false if they were already refreshed today, by this node or another
+     */
+    public boolean claimScoreRefresh(LocalDate today) {
+        Date day = Date.valueOf(today);
+        return jdbcTemplate.update(CLAIM_SCORE_REFRESH_SQL, day, day) == 1;
+    }
+
+    public CatalogVersion catalogVersion() {
+        return jdbcTemplate.queryForObject(VERSION_SQL, (rs, rowNum) -> new CatalogVersion(rs.getLong(1), rs.getLong(2)));
+    }
+
+    /**
+     * The import lease held by this node. Imports renew it with every chunk, since a long import may outlast
+     * tedtalks.import.lease.duration.
+     */
+    public class Lease implements AutoCloseable {
+        private final String owner;
+        private Instant renewAt;
+        private boolean releaseOnClose = true;
+
+        private Lease(String owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Extends the lease once a third of its duration has passed.
+         *
+         * @throws IllegalStateException if the lease expired and another import took it over
+         */
+        public void renewIfDue() {
+            Instant now = Instant.now();
+            if (now.isBefore(renewAt)) {
+                return;
+            }
+            Integer renewed = newTransaction.execute(status ->
+                    jdbcTemplate.update(RENEW_SQL, Timestamp.from(now.plus(leaseDuration)), LEASE_NAME, owner));
+            if (renewed == null || renewed == 0) {
+                throw new IllegalStateException("Import lease expired and was taken over by another import");
+            }
+            renewAt = now.plus(leaseDuration.dividedBy(3));
+        }
+
+        @Override
+        public void close() {
+            if (releaseOnClose) {
+                release();
+            }
+        }
+
+        private boolean tryAcquire() {
+            Instant now = Instant.now();
+            Integer acquired = newTransaction.execute(status -> jdbcTemplate.update(ACQUIRE_SQL, owner,
+                    Timestamp.from(now.plus(leaseDuration)), LEASE_NAME, Timestamp.from(now)));
+            renewAt = now.plus(leaseDuration.dividedBy(3));
+            return acquired != null && acquired == 1;
+        }
+
+        private void release() {
+            try {
+                newTransaction.executeWithoutResult(status -> jdbcTemplate.update(RELEASE_SQL, LEASE_NAME, owner));
+            } catch (RuntimeException e) {
+                // Other nodes take it over once it expires
+                log.warn("Could not release the import lease: {}", e.toString());
+            }
+        }
+    }
+}
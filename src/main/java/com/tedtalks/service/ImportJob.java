@@ -0,0 +1,73 @@
+package com.tedtalks.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of an asynchronous CSV import, as reported by {@code GET /tedtalks/import/{jobId}}.
+ */
+@Getter
+public class ImportJob {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final Instant submittedAt = Instant.now();
+    @JsonIgnore
+    private final ImportProgress progress = new ImportProgress();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String message;
+    private volatile List<Map<String, Object>> errors = List.of();
+    private volatile long errorCount;
+
+    ImportJob(String id) {
+        this.id = id;
+    }
+
+    public long getRowsProcessed() {
+        return progress.getRowsProcessed();
+    }
+
+    public long getRowsFailed() {
+        return progress.getRowsFailed();
+    }
+
+    /**
+     * Rows processed per second since the job started.
+     */
+    public double getRowsPerSecond() {
+        if (startedAt == null) return 0;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return getRowsProcessed() * 1000.0 / millis;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void completed(String message) {
+        this.message = message;
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void failed(String message, List<Map<String, Object>> errors, long errorCount) {
+        this.message = message;
+        this.errors = errors;
+        this.errorCount = errorCount;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+}
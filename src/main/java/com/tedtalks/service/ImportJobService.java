@@ -0,0 +1,114 @@
+package com.tedtalks.service;
+
+import com.tedtalks.exception.AlreadyImportedException;
+import com.tedtalks.exception.BadRequestException;
+import com.tedtalks.exception.ImportInProgressException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs CSV imports in the background on the bounded import executor and tracks their progress.
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+    private final CsvImportService csvImportService;
+    private final TaskExecutor importExecutor;
+    private final Duration retention;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(CsvImportService csvImportService, @Qualifier("importExecutor") TaskExecutor importExecutor,
+                            @Value("${tedtalks.import.async.retention:PT1H}") Duration retention) {
+        this.csvImportService = csvImportService;
+        this.importExecutor = importExecutor;
+        this.retention = retention;
+    }
+
+    /**
+     * Copies the upload to a temp file, since the multipart content is released when the request ends,
+     * and queues the import.
+     *
+     * @throws TaskRejectedException if the import pool and its queue are full
+     */
+    public ImportJob submit(MultipartFile file) throws IOException {
+        return submit(file, ImportMode.INSERT);
+    }
+
+    /**
+     * As {@link #submit(MultipartFile)}, importing with the given mode.
+     */
+    public ImportJob submit(MultipartFile file, ImportMode mode) throws IOException {
+        purgeFinishedJobs();
+        Path csvFile = Files.createTempFile("tedtalks-import-", ".csv");
+        try {
+            file.transferTo(csvFile);
+        } catch (IOException e) {
+            Files.deleteIfExists(csvFile);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> run(job, csvFile, mode));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(csvFile);
+            throw e;
+        }
+        log.info("Queued CSV import job {}", job.getId());
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(ImportJob job, Path csvFile, ImportMode mode) {
+        job.started();
+        try (InputStream inputStream = Files.newInputStream(csvFile)) {
+            int imported = csvImportService.importCsv(inputStream, job.getProgress(), mode);
+            job.completed(imported + " TED Talks imported successfully");
+        } catch (AlreadyImportedException e) {
+            job.completed(e.getMessage() + " at " + e.getImportedAt());
+        } catch (BadRequestException e) {
+            log.error("CSV Import job {} failed: {}", job.getId(), e.getMessage());
+            job.failed(e.getMessage(), e.getErrors(), e.getErrorCount());
+        } catch (ImportInProgressException e) {
+            log.warn("CSV Import job {} failed: {}", job.getId(), e.getMessage());
+            job.failed(e.getMessage(), List.of(), 0);
+        } catch (Exception e) {
+            log.error("CSV Import job {} failed", job.getId(), e);
+            job.failed("Failed to process CSV file", List.of(), 0);
+        } finally {
+            try {
+                Files.deleteIfExists(csvFile);
+            } catch (IOException e) {
+                log.warn("Could not delete temp file {}", csvFile);
+            }
+        }
+        log.info("CSV import job {} finished with status {}", job.getId(), job.getStatus());
+    }
+
+    private void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
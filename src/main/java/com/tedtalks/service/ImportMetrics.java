@@ -0,0 +1,86 @@
+package com.tedtalks.service;
+
+import com.tedtalks.util.CsvErrorList;
+import com.tedtalks.util.CsvValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Meters of the CSV import:
+ * <ul>
+ *     <li>{@code tedtalks.import.phase{phase}}: time spent per chunk in link_lookup, parse (row-local validation
+ *     and mapping), validate (order-dependent checks) and save</li>
+ *     <li>{@code tedtalks.import{outcome}}: duration of whole imports</li>
+ *     <li>{@code tedtalks.import.rows{result}}: rows imported and rejected, and of an upsert the rows updated and
+ *     skipped as unchanged</li>
+ *     <li>{@code tedtalks.import.errors{type}}: validation errors by type</li>
+ *     <li>{@code tedtalks.import.throughput}: rows per second of each successful import</li>
+ * </ul>
+ */
+class ImportMetrics {
+    private final MeterRegistry registry;
+    final Timer linkLookup;
+    final Timer parse;
+    final Timer validate;
+    final Timer save;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+    private final Counter updatedRows;
+    private final Counter unchangedRows;
+    private final DistributionSummary throughput;
+
+    ImportMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.linkLookup = phase("link_lookup");
+        this.parse = phase("parse");
+        this.validate = phase("validate");
+        this.save = phase("save");
+        this.importedRows = Counter.builder("tedtalks.import.rows").tag("result", "imported").register(registry);
+        this.rejectedRows = Counter.builder("tedtalks.import.rows").tag("result", "rejected").register(registry);
+        this.updatedRows = Counter.builder("tedtalks.import.rows").tag("result", "updated").register(registry);
+        this.unchangedRows = Counter.builder("tedtalks.import.rows").tag("result", "unchanged").register(registry);
+        this.throughput = DistributionSummary.builder("tedtalks.import.throughput").baseUnit("rows/s").register(registry);
+    }
+
+    private Timer phase(String phase) {
+        return Timer.builder("tedtalks.import.phase").tag("phase", phase).register(registry);
+    }
+
+    Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * @param rows      talks written, including the updated ones
+     * @param updated   stored talks an upsert changed
+     * @param unchanged rows an upsert skipped; they count towards throughput but not as imported
+     */
+    void succeeded(Timer.Sample sample, int rows, long updated, long unchanged) {
+        long nanos = sample.stop(Timer.builder("tedtalks.import").tag("outcome", "success").register(registry));
+        importedRows.increment(rows);
+        updatedRows.increment(updated);
+        unchangedRows.increment(unchanged);
+        if (nanos > 0) {
+            throughput.record((rows + unchanged) / (nanos / (double) Duration.ofSeconds(1).toNanos()));
+        }
+    }
+
+    void failed(Timer.Sample sample, long rejected, List<Map<String, Object>> errors) {
+        sample.stop(Timer.builder("tedtalks.import").tag("outcome", "failed").register(registry));
+        rejectedRows.increment(rejected);
+        if (errors instanceof CsvErrorList errorList) {
+            // Includes the errors beyond the reporting cap
+            errorList.countsByType().forEach((type, count) -> registry.counter("tedtalks.import.errors", "type", type).increment(count));
+            return;
+        }
+        for (Map<String, Object> error : errors) {
+            registry.counter("tedtalks.import.errors", "type", CsvValidator.errorType(error)).increment();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.tedtalks.service;
+
+import com.tedtalks.exception.BadRequestException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How an import treats links that are already stored.
+ */
+public enum ImportMode {
+    /**
+     * Every link must be new; a stored link fails the file.
+     */
+    INSERT,
+    /**
+     * Stored links get the file's views and likes, new links are inserted and rows with unchanged counts are skipped.
+     */
+    UPSERT;
+
+    public static ImportMode of(String name) {
+        for (ImportMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new BadRequestException("Invalid import parameters", List.of(Map.of("error", "mode must be insert or upsert.")));
+    }
+}
@@ -0,0 +1,42 @@
+package com.tedtalks.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Row counters updated by the import as each chunk is validated, readable from other threads.
+ */
+public class ImportProgress {
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong rowsUnchanged = new AtomicLong();
+
+    void chunkProcessed(int rows, int failed) {
+        rowsProcessed.addAndGet(rows);
+        rowsFailed.addAndGet(failed);
+    }
+
+    /**
+     * Counts of an upsert chunk that was written: stored links with new counts, and those skipped as unchanged.
+     */
+    void chunkMerged(int updated, int unchanged) {
+        rowsUpdated.addAndGet(updated);
+        rowsUnchanged.addAndGet(unchanged);
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.get();
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+
+    public long getRowsUnchanged() {
+        return rowsUnchanged.get();
+    }
+}
@@ -0,0 +1,62 @@
+package com.tedtalks.service;
+
+import com.tedtalks.exception.ImportInProgressException;
+import com.tedtalks.repository.TedTalkBatchWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the stored engagement and growth rates current; growth rates age as days since publication grow.
+ *
+ * The refresh is one UPDATE in the database and runs once per day across all nodes: it takes the import lease, so it
+ * cannot interleave with an import, and claims the day in catalog_version, so other nodes and restarts skip it.
+ * A refresh that changed rates bumps the catalog version, so every node clears its caches once it commits.
+ */
+@Slf4j
+@Service
+public class ScoreRefreshService {
+    private final TedTalkBatchWriter tedTalkBatchWriter;
+    private final ImportCoordinator importCoordinator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ScoreRefreshService(TedTalkBatchWriter tedTalkBatchWriter, ImportCoordinator importCoordinator,
+                               ApplicationEventPublisher eventPublisher) {
+        this.tedTalkBatchWriter = tedTalkBatchWriter;
+        this.importCoordinator = importCoordinator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Runs daily and at startup, which catches up on a day whose scheduled refresh no node ran.
+     *
+     * @return number of talks updated; 0 if today's refresh already ran or an import held the lease too long
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tedtalks.scores.refresh-cron:0 0 1 * * *}")
+    @Transactional
+    public int refreshScoreComponents() {
+        LocalDate today = LocalDate.now();
+        try (ImportCoordinator.Lease lease = importCoordinator.acquireLease()) {
+            if (!importCoordinator.claimScoreRefresh(today)) {
+                log.debug("Influence score components were already refreshed on {}", today);
+                return 0;
+            }
+            int updated = tedTalkBatchWriter.refreshScoreComponents(today);
+            log.info("Refreshed influence score components of {} TED Talks", updated);
+            if (updated > 0) {
+                eventPublisher.publishEvent(new TalksImportedEvent(0, 0, importCoordinator.bumpCatalogVersion()));
+            }
+            return updated;
+        } catch (ImportInProgressException e) {
+            log.warn("Skipped refreshing influence score components, an import held the lease: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
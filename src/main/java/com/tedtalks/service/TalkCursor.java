@@ -0,0 +1,104 @@
+package com.tedtalks.service;
+
+import com.tedtalks.exception.BadRequestException;
+import com.tedtalks.entity.TedTalk;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Continuation token for keyset pagination: the sort of the listing plus the sort key and id of the last talk
+ * returned. Encoded as opaque URL-safe Base64, so clients cannot depend on its layout.
+ */
+record TalkCursor(String property, Sort.Direction direction, Object value, long id) {
+    /**
+     * Sort keys that are not null and can be restored from their string form. Each has a {@code (key, id)} index,
+     * which serves both the seek past the cursor and the order of the page.
+     */
+    static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "title", "author", "views", "likes", "date");
+
+    static TalkCursor after(Sort.Order order, TedTalk last) {
+        Object value = switch (order.getProperty()) {
+            case "title" -> last.getTitle();
+            case "author" -> last.getAuthor();
+            case "views" -> last.getViews();
+            case "likes" -> last.getLikes();
+            case "date" -> last.getDate();
+            default -> null;
+        };
+        return new TalkCursor(order.getProperty(), order.getDirection(), value, last.getId());
+    }
+
+    /**
+     * Sort key, then id to make positions unique, both in the cursor's direction so the {@code (key, id)} index
+     * returns rows already in order.
+     */
+    Sort sort() {
+        return sort(Sort.Order.by(property).with(direction));
+    }
+
+    static Sort sort(Sort.Order order) {
+        return "id".equals(order.getProperty()) ? Sort.by(order) : Sort.by(order, Sort.Order.by("id").with(order.getDirection()));
+    }
+
+    /**
+     * Talks after this position. Written as {@code key >= v and (key > v or id > lastId)} (mirrored for
+     * descending) rather than the plain OR form, so the database can seek on the sort key index.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Specification<TedTalk> toSpecification() {
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get("id");
+            if ("id".equals(property)) {
+                return direction.isAscending() ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            }
+            Path<Comparable> key = root.get(property);
+            Comparable keyValue = (Comparable) value;
+            if (direction.isAscending()) {
+                return cb.and(cb.greaterThanOrEqualTo(key, keyValue), cb.or(cb.greaterThan(key, keyValue), cb.greaterThan(idPath, id)));
+            }
+            return cb.and(cb.lessThanOrEqualTo(key, keyValue), cb.or(cb.lessThan(key, keyValue), cb.lessThan(idPath, id)));
+        };
+    }
+
+    String encode() {
+        String value = "id".equals(property) ? "" : this.value.toString();
+        String raw = property + ":" + direction + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TalkCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 4);
+            String property = parts[0];
+            if (parts.length != 4 || !SORTABLE_PROPERTIES.contains(property)) {
+                throw invalid();
+            }
+            return new TalkCursor(property, Sort.Direction.valueOf(parts[1]), parseValue(property, parts[3]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw invalid();
+        }
+    }
+
+    private static Object parseValue(String property, String value) {
+        return switch (property) {
+            case "views", "likes" -> new BigInteger(value);
+            case "date" -> LocalDate.parse(value);
+            case "id" -> null;
+            default -> value;
+        };
+    }
+
+    private static BadRequestException invalid() {
+        return new BadRequestException("Invalid paging parameters", List.of(Map.of("error", "cursor is invalid.")));
+    }
+}
@@ -0,0 +1,131 @@
+package com.tedtalks.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.exception.BadRequestException;
+import com.tedtalks.repository.TedTalkExportReader;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the whole catalog to a stream, one talk at a time, straight from the {@link TedTalkExportReader} cursor.
+ */
+@Slf4j
+@Service
+public class TalkExportService {
+    /**
+     * Same month and year layout as the import, so an exported CSV can be imported again.
+     */
+    private static final DateTimeFormatter CSV_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+    private static final CSVFormat CSV_FORMAT = CSVFormat.Builder.create(CSVFormat.DEFAULT)
+            .setHeader("title", "author", "date", "views", "likes", "link")
+            .build();
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Invalid export format", List.of(Map.of("error", "format must be ndjson or csv.")));
+        }
+    }
+
+    private final TedTalkExportReader tedTalkExportReader;
+    private final ObjectWriter jsonWriter;
+
+    public TalkExportService(TedTalkExportReader tedTalkExportReader, ObjectMapper objectMapper) {
+        this.tedTalkExportReader = tedTalkExportReader;
+        // Lines are terminated explicitly, so no separator between root values
+        this.jsonWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+    }
+
+    /**
+     * Writes every talk to out in the given format. Does not close out.
+     *
+     * @return number of talks written
+     */
+    public long export(Format format, OutputStream out) throws IOException {
+        long[] written = {0};
+        try {
+            if (format == Format.NDJSON) {
+                try (JsonGenerator generator = jsonWriter.createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    tedTalkExportReader.forEach(talk -> {
+                        writeJsonLine(generator, talk);
+                        written[0]++;
+                    });
+                }
+            } else {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                CSVPrinter printer = new CSVPrinter(writer, CSV_FORMAT);
+                tedTalkExportReader.forEach(talk -> {
+                    printCsvRecord(printer, talk);
+                    written[0]++;
+                });
+                printer.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} TED Talks as {}", written[0], format);
+        return written[0];
+    }
+
+    private void writeJsonLine(JsonGenerator generator, TedTalk talk) {
+        try {
+            jsonWriter.writeValue(generator, talk);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void printCsvRecord(CSVPrinter printer, TedTalk talk) {
+        try {
+            printer.printRecord(talk.getTitle(), talk.getAuthor(), CSV_DATE_FORMATTER.format(talk.getDate()),
+                    talk.getViews(), talk.getLikes(), talk.getLink());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
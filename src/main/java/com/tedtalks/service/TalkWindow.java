@@ -0,0 +1,12 @@
+package com.tedtalks.service;
+
+import com.tedtalks.entity.TedTalk;
+
+import java.util.List;
+
+/**
+ * One keyset page of GET /tedtalks?paging=keyset. Pass nextCursor back as {@code cursor} to read the
+ * following page; it is null on the last page.
+ */
+public record TalkWindow(List<TedTalk> content, boolean hasNext, String nextCursor) {
+}
@@ -0,0 +1,19 @@
+package com.tedtalks.service;
+
+/**
+ * Published by {@link CsvImportService} when an import has written talks, and by {@link CatalogVersionWatcher} when
+ * another node has. rowsUpdated is how many of the rowsImported were stored talks whose views and likes an upsert
+ * changed; when it is zero the import only appended rows. For imports on another node rowsImported is 0 and
+ * rowsUpdated only tells whether any stored talk changed. catalogVersion is the version the import committed, or 0.
+ * Listeners that keep derived data should react after the import transaction commits.
+ */
+public record TalksImportedEvent(int rowsImported, int rowsUpdated, long catalogVersion) {
+
+    public TalksImportedEvent(int rowsImported, int rowsUpdated) {
+        this(rowsImported, rowsUpdated, 0);
+    }
+
+    public TalksImportedEvent(int rowsImported) {
+        this(rowsImported, 0);
+    }
+}
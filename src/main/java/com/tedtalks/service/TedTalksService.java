@@ -1,28 +1,73 @@
 package com.tedtalks.service;
 
+import com.tedtalks.analytics.AuthorLeaderboard;
+import com.tedtalks.analytics.AuthorRanking;
+import com.tedtalks.analytics.AuthorStats;
+import com.tedtalks.analytics.ScoreWeights;
+import com.tedtalks.analytics.TalkColumnStore;
+import com.tedtalks.analytics.TalkSearchIndex;
+import com.tedtalks.analytics.YearStats;
+import com.tedtalks.analytics.YearlyLeaderboard;
+import com.tedtalks.config.CacheConfig;
 import com.tedtalks.entity.TedTalk;
+import com.tedtalks.exception.BadRequestException;
 import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.util.FixedPointScore;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.data.domain.Page;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class TedTalksService {
+    private static final Pageable TOP_ONE = PageRequest.of(0, 1);
+    // Same as ScoreWeights.DEFAULT and the request defaults of the ranking endpoints
+    private static final BigDecimal DEFAULT_VIEWS_WEIGHT = new BigDecimal("0.4");
+    private static final BigDecimal DEFAULT_LIKES_WEIGHT = new BigDecimal("0.4");
+    private static final BigDecimal DEFAULT_ENGAGEMENT_WEIGHT = new BigDecimal("0.1");
+    private static final BigDecimal DEFAULT_GROWTH_WEIGHT = new BigDecimal("0.1");
+
     private final TedTalksRepository tedTalksRepository;
+    private final TalkColumnStore talkColumnStore;
+    private final YearlyLeaderboard yearlyLeaderboard;
+    private final AuthorLeaderboard authorLeaderboard;
+    private final TalkSearchIndex talkSearchIndex;
+    private final int maxPageSize;
+    private volatile FixedPointScore.Weights lastWeights;
 
-    public TedTalksService(TedTalksRepository tedTalksRepository) {
+    public TedTalksService(TedTalksRepository tedTalksRepository, TalkColumnStore talkColumnStore,
+                           YearlyLeaderboard yearlyLeaderboard, AuthorLeaderboard authorLeaderboard,
+                           TalkSearchIndex talkSearchIndex, @Value("${tedtalks.ranking.max-page-size:1000}") int maxPageSize) {
         this.tedTalksRepository = tedTalksRepository;
+        this.talkColumnStore = talkColumnStore;
+        this.yearlyLeaderboard = yearlyLeaderboard;
+        this.authorLeaderboard = authorLeaderboard;
+        this.talkSearchIndex = talkSearchIndex;
+        this.maxPageSize = maxPageSize;
     }
 
     public Page<TedTalk> getAllTedTalks(int page, int size, String sort) {
@@ -31,6 +76,44 @@ public class TedTalksService {
         return tedTalksRepository.findAll(pageable);
     }
 
+    /**
+     * Same listing as {@link #getAllTedTalks} without the total count, which saves a COUNT(*) per request.
+     */
+    public Slice<TedTalk> getTedTalksSlice(int page, int size, String sort) {
+        validatePaging(page, size);
+        return tedTalksRepository.findSliceBy(PageRequest.of(page, size, parseSortCriteria(sort)));
+    }
+
+    /**
+     * Keyset pagination: each page continues after the sort key and id of the previous page's last talk
+     * instead of skipping an offset, so deep pages cost the same as the first. The cursor carries the sort,
+     * so {@code sort} only applies to the first page.
+     */
+    public TalkWindow scrollTedTalks(String cursor, int size, String sort) {
+        validatePaging(0, size);
+        Sort.Order order;
+        Specification<TedTalk> after;
+        if (cursor == null || cursor.isEmpty()) {
+            order = parseSortCriteria(sort).iterator().next();
+            if (!TalkCursor.SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new BadRequestException("Invalid paging parameters",
+                        List.of(Map.of("error", "sort must be one of " + TalkCursor.SORTABLE_PROPERTIES + ".")));
+            }
+            after = Specification.where(null);
+        } else {
+            TalkCursor position = TalkCursor.decode(cursor);
+            order = position.sort().iterator().next();
+            after = position.toSpecification();
+        }
+        // One extra row tells whether another page follows, without a count query
+        List<TedTalk> talks = tedTalksRepository.findBy(after, query -> query.sortBy(TalkCursor.sort(order)).limit(size + 1).all());
+        if (talks.size() <= size) {
+            return new TalkWindow(talks, false, null);
+        }
+        List<TedTalk> content = talks.subList(0, size);
+        return new TalkWindow(content, true, TalkCursor.after(order, content.get(size - 1)).encode());
+    }
+
     /**
      * Parses sorting criteria -- Example: Sort.Direction.DESC, "views"
      *
@@ -51,56 +134,280 @@ public class TedTalksService {
     }
 
     public List<TedTalk> getTedTalksTalkPerYear(int year) {
-        LocalDate startDate = LocalDate.of(year, 1, 1);
-        LocalDate endDate = LocalDate.of(year, 12, 31);
-        return tedTalksRepository.findByDateBetween(startDate, endDate);
+        return tedTalksRepository.findByYear(year);
     }
 
+    @Cacheable(CacheConfig.MOST_VIEWED)
     public TedTalk getMostInfluentialByViews() {
         return tedTalksRepository.findTop1ByOrderByViewsDesc().get(0);
     }
 
+    @Cacheable(CacheConfig.MOST_LIKED)
     public TedTalk getMostInfluentialByLikes() {
         return tedTalksRepository.findTop1ByOrderByLikesDesc().get(0);
     }
 
 
+    @Cacheable(CacheConfig.MOST_INFLUENTIAL)
+    @Timed(value = "tedtalks.scoring", extraTags = {"operation", "most_influential"})
     public Optional<TedTalk> getMostInfluentialSpeaker(BigDecimal viewsWeight, BigDecimal likesWeight,
                                                        BigDecimal engagementWeight, BigDecimal growthWeight) {
-        return tedTalksRepository.findAll().stream()
-                .max(Comparator.comparing(talk -> calculateInfluenceScore(talk, viewsWeight, likesWeight, engagementWeight, growthWeight)));
+        if (talkColumnStore.isReady()) {
+            try {
+                ScoreWeights weights = ScoreWeights.of(viewsWeight, likesWeight, engagementWeight, growthWeight);
+                return findTalk(talkColumnStore.findMostInfluential(weights, Integer.MIN_VALUE, Integer.MAX_VALUE));
+            } catch (ArithmeticException e) {
+                // Weights or counts too large for fixed point scoring; rank in the database instead
+            }
+        }
+        return tedTalksRepository.findAllOrderByInfluenceScore(viewsWeight, likesWeight, engagementWeight, growthWeight, TOP_ONE)
+                .stream()
+                .findFirst();
     }
 
+    @Cacheable(CacheConfig.MOST_INFLUENTIAL_PER_YEAR)
+    @Timed(value = "tedtalks.scoring", extraTags = {"operation", "most_influential_per_year"})
     public Optional<TedTalk> getMostInfluentialTalkPerYear(int year, BigDecimal viewsWeight, BigDecimal likesWeight, BigDecimal engagementWeight, BigDecimal growthWeight) {
         LocalDate startDate = LocalDate.of(year, 1, 1);
         LocalDate endDate = LocalDate.of(year, 12, 31);
-        List<TedTalk> talksForYear = tedTalksRepository.findByDateBetween(startDate, endDate);
-        return talksForYear.stream()
-                .max(Comparator.comparing(talk -> calculateInfluenceScore(talk, viewsWeight, likesWeight, engagementWeight, growthWeight)));
+        if (talkColumnStore.isReady()) {
+            try {
+                ScoreWeights weights = ScoreWeights.of(viewsWeight, likesWeight, engagementWeight, growthWeight);
+                return findTalk(talkColumnStore.findMostInfluential(weights, (int) startDate.toEpochDay(), (int) endDate.toEpochDay()));
+            } catch (ArithmeticException e) {
+                // Weights or counts too large for fixed point scoring; rank in the database instead
+            }
+        }
+        return tedTalksRepository.findByYearOrderByInfluenceScore(year,
+                        viewsWeight, likesWeight, engagementWeight, growthWeight, TOP_ONE)
+                .stream()
+                .findFirst();
     }
 
-    public List<TedTalk> getAllTedTalksWithInfluenceScore(BigDecimal viewsWeight, BigDecimal likesWeight, BigDecimal engagementWeight, BigDecimal growthWeight) {
-        return tedTalksRepository.findAll().stream()
-                .map(talk -> {
-                    talk.setInfluenceScore(calculateInfluenceScore(talk, viewsWeight, likesWeight, engagementWeight, growthWeight));
-                    return talk;
+    /**
+     * Talk count, totals and leading talks of every year, oldest first. Served from the materialized
+     * {@link YearlyLeaderboard} with a single lookup of the leading talks; falls back to per-year queries
+     * while the column store is not ready.
+     */
+    @Cacheable(CacheConfig.YEAR_STATS)
+    @Timed(value = "tedtalks.scoring", extraTags = {"operation", "year_stats"})
+    public List<YearSummary> getYearSummaries() {
+        if (!yearlyLeaderboard.isReady()) {
+            return summarizeYearsFromDatabase();
+        }
+        List<YearStats> stats = yearlyLeaderboard.summary();
+        Set<Long> ids = new HashSet<>();
+        stats.forEach(year -> {
+            ids.add(year.mostViewedId());
+            ids.add(year.mostLikedId());
+            ids.add(year.mostInfluentialId());
+        });
+        Map<Long, TedTalk> talksById = new HashMap<>();
+        tedTalksRepository.findAllById(ids).forEach(talk -> talksById.put(talk.getId(), withDefaultInfluenceScore(talk)));
+        return stats.stream()
+                .map(year -> new YearSummary(year.year(), year.talkCount(), year.totalViews(), year.totalLikes(),
+                        talksById.get(year.mostViewedId()), talksById.get(year.mostLikedId()),
+                        talksById.get(year.mostInfluentialId())))
+                .toList();
+    }
+
+    /**
+     * The {@code limit} best speakers by total influence score, views, likes or number of talks, served from
+     * the materialized {@link AuthorLeaderboard}; falls back to a GROUP BY while the column store is not ready.
+     */
+    @Cacheable(CacheConfig.TOP_AUTHORS)
+    @Timed(value = "tedtalks.scoring", extraTags = {"operation", "top_authors"})
+    public List<AuthorStats> getTopAuthors(String sortBy, int limit) {
+        AuthorRanking ranking = AuthorRanking.of(sortBy);
+        validatePaging(0, limit);
+        if (authorLeaderboard.isReady()) {
+            return authorLeaderboard.top(ranking, limit);
+        }
+        return tedTalksRepository.summarizeByAuthor(DEFAULT_VIEWS_WEIGHT, DEFAULT_LIKES_WEIGHT, DEFAULT_ENGAGEMENT_WEIGHT, DEFAULT_GROWTH_WEIGHT)
+                .stream()
+                .map(row -> {
+                    long talkCount = ((Number) row[1]).longValue();
+                    BigInteger views = (BigInteger) row[2];
+                    BigInteger likes = (BigInteger) row[3];
+                    return new AuthorStats((String) row[0], talkCount, views, likes,
+                            new BigDecimal(views).divide(BigDecimal.valueOf(talkCount), 5, RoundingMode.HALF_UP),
+                            new BigDecimal(likes).divide(BigDecimal.valueOf(talkCount), 5, RoundingMode.HALF_UP),
+                            ((BigDecimal) row[4]).setScale(5, RoundingMode.HALF_UP));
                 })
-                .sorted(Comparator.comparing(TedTalk::getInfluenceScore).reversed())
+                .sorted(ranking.comparator())
+                .limit(limit)
                 .toList();
     }
 
+    private List<YearSummary> summarizeYearsFromDatabase() {
+        List<YearSummary> summaries = new ArrayList<>();
+        for (Object[] row : tedTalksRepository.summarizeByYear()) {
+            int year = ((Number) row[0]).intValue();
+            summaries.add(new YearSummary(year, ((Number) row[1]).longValue(), (BigInteger) row[2], (BigInteger) row[3],
+                    first(tedTalksRepository.findTop1ByYearOrderByViewsDescIdAsc(year)),
+                    first(tedTalksRepository.findTop1ByYearOrderByLikesDescIdAsc(year)),
+                    first(tedTalksRepository.findByYearOrderByInfluenceScore(year, DEFAULT_VIEWS_WEIGHT, DEFAULT_LIKES_WEIGHT,
+                            DEFAULT_ENGAGEMENT_WEIGHT, DEFAULT_GROWTH_WEIGHT, TOP_ONE))));
+        }
+        summaries.forEach(summary -> withDefaultInfluenceScore(summary.mostInfluential()));
+        return summaries;
+    }
+
+    private static TedTalk first(List<TedTalk> talks) {
+        return talks.isEmpty() ? null : talks.get(0);
+    }
+
+    private TedTalk withDefaultInfluenceScore(TedTalk talk) {
+        if (talk != null) {
+            talk.setInfluenceScore(calculateStoredInfluenceScore(talk,
+                    DEFAULT_VIEWS_WEIGHT, DEFAULT_LIKES_WEIGHT, DEFAULT_ENGAGEMENT_WEIGHT, DEFAULT_GROWTH_WEIGHT));
+        }
+        return talk;
+    }
+
+    /**
+     * One page of talks ranked by influence score, best first, with ties broken by id.
+     * Only the top {@code (page + 1) * limit} talks are selected, so cost and response size do not grow with the table.
+     */
+    @Timed(value = "tedtalks.scoring", extraTags = {"operation", "ranking_page"})
+    public List<TedTalk> getAllTedTalksWithInfluenceScore(BigDecimal viewsWeight, BigDecimal likesWeight, BigDecimal engagementWeight, BigDecimal growthWeight,
+                                                          int page, int limit) {
+        validatePaging(page, limit);
+        List<TedTalk> talks = null;
+        if (talkColumnStore.isReady()) {
+            int offset = page * limit;
+            try {
+                long[] topIds = talkColumnStore.topByInfluence(ScoreWeights.of(viewsWeight, likesWeight, engagementWeight, growthWeight), offset + limit);
+                talks = findAllInOrder(topIds, offset);
+            } catch (ArithmeticException e) {
+                // Weights or counts too large for fixed point scoring; rank in the database instead
+            }
+        }
+        if (talks == null) {
+            talks = tedTalksRepository.findAllOrderByInfluenceScore(viewsWeight, likesWeight, engagementWeight, growthWeight, PageRequest.of(page, limit));
+        }
+        talks.forEach(talk -> talk.setInfluenceScore(calculateStoredInfluenceScore(talk, viewsWeight, likesWeight, engagementWeight, growthWeight)));
+        return talks;
+    }
+
+    /**
+     * Clears the leaderboard caches once an import is committed. Runs after the column store has
+     * appended the new rows, so a request racing the eviction cannot cache the old ranking again.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = {CacheConfig.MOST_VIEWED, CacheConfig.MOST_LIKED,
+            CacheConfig.MOST_INFLUENTIAL, CacheConfig.MOST_INFLUENTIAL_PER_YEAR, CacheConfig.YEAR_STATS,
+            CacheConfig.TOP_AUTHORS}, allEntries = true)
+    public void onTalksImported(TalksImportedEvent event) {
+        log.debug("Leaderboard caches cleared after importing {} TED Talks", event.rowsImported());
+    }
+
+    /**
+     * Talks whose title or author words start with the query words, best match first, with popular talks
+     * ranked higher among equal matches. Served from the {@link TalkSearchIndex}; while it is loading, falls
+     * back to a substring scan ordered by views.
+     */
+    @Timed("tedtalks.search")
+    public List<TedTalk> searchTalks(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Invalid search parameters", List.of(Map.of("error", "q must not be blank.")));
+        }
+        validatePaging(0, limit);
+        if (talkSearchIndex.isReady()) {
+            return findAllInOrder(talkSearchIndex.search(query, limit), 0);
+        }
+        String text = query.trim();
+        return tedTalksRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(text, text,
+                PageRequest.of(0, limit, Sort.by(Sort.Order.desc("views"), Sort.Order.asc("id"))));
+    }
+
+    /**
+     * Loads the talks with ids[from..] in that order; ids deleted in the meantime are skipped.
+     */
+    private List<TedTalk> findAllInOrder(long[] ids, int from) {
+        List<Long> wanted = new ArrayList<>(Math.max(0, ids.length - from));
+        for (int i = from; i < ids.length; i++) {
+            wanted.add(ids[i]);
+        }
+        Map<Long, TedTalk> talksById = new HashMap<>();
+        tedTalksRepository.findAllById(wanted).forEach(talk -> talksById.put(talk.getId(), talk));
+        return wanted.stream().map(talksById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private void validatePaging(int page, int limit) {
+        if (page < 0 || limit < 1 || limit > maxPageSize) {
+            throw new BadRequestException("Invalid paging parameters",
+                    List.of(Map.of("error", "page must be >= 0 and limit between 1 and " + maxPageSize + ".")));
+        }
+        if ((long) (page + 1) * limit > Integer.MAX_VALUE) {
+            throw new BadRequestException("Invalid paging parameters", List.of(Map.of("error", "page is too large.")));
+        }
+    }
+
+    private Optional<TedTalk> findTalk(OptionalLong id) {
+        return id.isPresent() ? tedTalksRepository.findById(id.getAsLong()) : Optional.empty();
+    }
+
+    /**
+     * Stores the weight-independent parts of the influence score (engagement and growth rate) on the talk,
+     * so that ranking only has to apply the weights.
+     */
+    public TedTalk applyScoreComponents(TedTalk talk) {
+        talk.setEngagementRate(calculateEngagementRate(talk));
+        talk.setGrowthRate(calculateGrowthRate(talk));
+        return talk;
+    }
+
+    /**
+     * Influence score from the stored engagement and growth rates; falls back to
+     * {@link #calculateInfluenceScore} for talks that have none stored yet.
+     */
+    public BigDecimal calculateStoredInfluenceScore(TedTalk talk,
+                                                    BigDecimal viewsWeight, BigDecimal likesWeight,
+                                                    BigDecimal engagementWeight, BigDecimal growthWeight) {
+        if (talk.getEngagementRate() == null || talk.getGrowthRate() == null) {
+            return calculateInfluenceScore(talk, viewsWeight, likesWeight, engagementWeight, growthWeight);
+        }
+        return new BigDecimal(talk.getViews()).multiply(viewsWeight)
+                .add(new BigDecimal(talk.getLikes()).multiply(likesWeight))
+                .add(talk.getEngagementRate().multiply(engagementWeight))
+                .add(talk.getGrowthRate().multiply(growthWeight))
+                .setScale(5, RoundingMode.HALF_UP);
+    }
+
     /**
      * Calculates the Influence Score based on configurable weightages.
      *
      * InfluenceScore=(viewsWeight×TotalViews)+(likesWeight×TotalLikes)+(engagementWeight×EngagementRate)+(growthWeight×GrowthRate)
      *
+     * Uses {@link FixedPointScore} when views and likes fit in a long and falls back to
+     * {@link #calculateInfluenceScoreExact} on overflow; both give identical results.
      */
     public BigDecimal calculateInfluenceScore(TedTalk talk,
                                                BigDecimal viewsWeight, BigDecimal likesWeight,
                                                BigDecimal engagementWeight, BigDecimal growthWeight) {
+        if (fitsLong(talk.getViews()) && fitsLong(talk.getLikes())) {
+            try {
+                long views = talk.getViews().longValue();
+                long likes = talk.getLikes().longValue();
+                long days = FixedPointScore.daysSincePublished(talk.getDate(), LocalDate.now());
+                long score = FixedPointScore.influenceScore(views, likes,
+                        FixedPointScore.engagementRate(views, likes), FixedPointScore.growthRate(views, likes, days),
+                        fixedPointWeights(viewsWeight, likesWeight, engagementWeight, growthWeight));
+                return BigDecimal.valueOf(score, FixedPointScore.SCALE);
+            } catch (ArithmeticException e) {
+                // An intermediate value overflowed, use exact arithmetic
+            }
+        }
+        return calculateInfluenceScoreExact(talk, viewsWeight, likesWeight, engagementWeight, growthWeight);
+    }
+
+    public BigDecimal calculateInfluenceScoreExact(TedTalk talk,
+                                                   BigDecimal viewsWeight, BigDecimal likesWeight,
+                                                   BigDecimal engagementWeight, BigDecimal growthWeight) {
 
-        BigDecimal engagementRate = calculateEngagementRate(talk);
-        BigDecimal growthRate = calculateGrowthRate(talk);
+        BigDecimal engagementRate = calculateEngagementRateExact(talk);
+        BigDecimal growthRate = calculateGrowthRateExact(talk);
 
         return new BigDecimal(talk.getViews()).multiply(viewsWeight)
                 .add(new BigDecimal(talk.getLikes()).multiply(likesWeight))
@@ -116,6 +423,19 @@ public class TedTalksService {
      */
     public BigDecimal calculateEngagementRate(TedTalk talk) {
         if (talk.getViews().equals(BigInteger.ZERO)) return BigDecimal.ZERO;
+        if (fitsLong(talk.getViews()) && fitsLong(talk.getLikes())) {
+            try {
+                return BigDecimal.valueOf(FixedPointScore.engagementRate(talk.getViews().longValue(), talk.getLikes().longValue()),
+                        FixedPointScore.SCALE);
+            } catch (ArithmeticException e) {
+                // An intermediate value overflowed, use exact arithmetic
+            }
+        }
+        return calculateEngagementRateExact(talk);
+    }
+
+    public BigDecimal calculateEngagementRateExact(TedTalk talk) {
+        if (talk.getViews().equals(BigInteger.ZERO)) return BigDecimal.ZERO;
 
         return new BigDecimal(talk.getLikes())
                 .divide(new BigDecimal(talk.getViews()), 5, RoundingMode.HALF_UP)
@@ -131,6 +451,21 @@ public class TedTalksService {
      * @return
      */
     public BigDecimal calculateGrowthRate(TedTalk talk) {
+        if (talk.getViews().equals(BigInteger.ZERO) || talk.getLikes().equals(BigInteger.ZERO))
+            return BigDecimal.ZERO;
+        if (fitsLong(talk.getViews()) && fitsLong(talk.getLikes())) {
+            try {
+                long days = FixedPointScore.daysSincePublished(talk.getDate(), LocalDate.now());
+                return BigDecimal.valueOf(FixedPointScore.growthRate(talk.getViews().longValue(), talk.getLikes().longValue(), days),
+                        FixedPointScore.SCALE);
+            } catch (ArithmeticException e) {
+                // An intermediate value overflowed, use exact arithmetic
+            }
+        }
+        return calculateGrowthRateExact(talk);
+    }
+
+    public BigDecimal calculateGrowthRateExact(TedTalk talk) {
         if (talk.getViews().equals(BigInteger.ZERO) || talk.getLikes().equals(BigInteger.ZERO))
             return BigDecimal.ZERO;
         long daysSincePublished = Math.max(1, talk.getDate().until(LocalDate.now()).toTotalMonths() * 30L);
@@ -138,4 +473,21 @@ public class TedTalksService {
         BigDecimal viewsPlusLikes= new BigDecimal(talk.getViews()).add(new BigDecimal(talk.getLikes()));
         return viewsPlusLikes.divide(daysBigDecimal, 5, RoundingMode.HALF_UP);
     }
-}
\ No newline at end of file
+
+    private static boolean fitsLong(BigInteger value) {
+        return value.bitLength() < Long.SIZE;
+    }
+
+    /**
+     * Reuses the converted weights while callers keep passing the same instances, as a ranking loop does.
+     */
+    private FixedPointScore.Weights fixedPointWeights(BigDecimal viewsWeight, BigDecimal likesWeight,
+                                                      BigDecimal engagementWeight, BigDecimal growthWeight) {
+        FixedPointScore.Weights weights = lastWeights;
+        if (weights == null || !weights.isFor(viewsWeight, likesWeight, engagementWeight, growthWeight)) {
+            weights = FixedPointScore.Weights.of(viewsWeight, likesWeight, engagementWeight, growthWeight);
+            lastWeights = weights;
+        }
+        return weights;
+    }
+}
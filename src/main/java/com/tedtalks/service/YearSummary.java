@@ -0,0 +1,12 @@
+package com.tedtalks.service;
+
+import com.tedtalks.entity.TedTalk;
+
+import java.math.BigInteger;
+
+/**
+ * One row of GET /tedtalks/stats/years. The most influential talk is ranked with the default weights.
+ */
+public record YearSummary(int year, long talkCount, BigInteger totalViews, BigInteger totalLikes,
+                          TedTalk mostViewed, TedTalk mostLiked, TedTalk mostInfluential) {
+}
@@ -0,0 +1,32 @@
+package com.tedtalks.util;
+
+import java.math.BigInteger;
+
+/**
+ * 64-bit FNV-1a hash of the counts an upsert import may change.
+ *
+ * Stored with each talk so a refresh can skip rows whose views and likes are unchanged by comparing one
+ * {@code long} per link, without reading the stored counts back.
+ */
+public final class ContentHash {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private ContentHash() {
+    }
+
+    public static long of(BigInteger views, BigInteger likes) {
+        long hash = OFFSET_BASIS;
+        hash = mix(hash, views.toByteArray());
+        // The length byte keeps (views, likes) pairs with shifted byte boundaries apart
+        hash = (hash ^ views.bitLength()) * PRIME;
+        return mix(hash, likes.toByteArray());
+    }
+
+    private static long mix(long hash, byte[] bytes) {
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,98 @@
+package com.tedtalks.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One validation error, held as plain fields instead of a map of boxed values.
+ *
+ * Reads as the map clients already receive: {@code row}, {@code column} and {@code value} when known, the
+ * {@code error} message and the {@code code}. Entries are only materialized when the error is serialized.
+ */
+public final class CsvError extends AbstractMap<String, Object> {
+    private static final int NO_ROW = 0;
+
+    private final int row;
+    private final String column;
+    private final String value;
+    private final CsvErrorCode code;
+
+    private CsvError(int row, String column, String value, CsvErrorCode code) {
+        this.row = row;
+        this.column = column;
+        this.value = value;
+        this.code = code;
+    }
+
+    /**
+     * Error about the file as a whole.
+     */
+    public static CsvError of(CsvErrorCode code) {
+        return new CsvError(NO_ROW, null, null, code);
+    }
+
+    public static CsvError of(int row, CsvErrorCode code) {
+        return new CsvError(row, null, null, code);
+    }
+
+    public static CsvError of(int row, String column, String value, CsvErrorCode code) {
+        return new CsvError(row, column, value, code);
+    }
+
+    public int row() {
+        return row;
+    }
+
+    public CsvErrorCode code() {
+        return code;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        return switch (name) {
+            case "row" -> row == NO_ROW ? null : row;
+            case "column" -> column;
+            case "value" -> value;
+            case "error" -> code.message();
+            case "code" -> code.name();
+            default -> null;
+        };
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return entries().iterator();
+            }
+
+            @Override
+            public int size() {
+                return (row == NO_ROW ? 0 : 1) + (column == null ? 0 : 1) + (value == null ? 0 : 1) + 2;
+            }
+        };
+    }
+
+    private List<Entry<String, Object>> entries() {
+        List<Entry<String, Object>> entries = new ArrayList<>(5);
+        if (row != NO_ROW) entries.add(new SimpleImmutableEntry<>("row", row));
+        if (column != null) entries.add(new SimpleImmutableEntry<>("column", column));
+        if (value != null) entries.add(new SimpleImmutableEntry<>("value", value));
+        entries.add(new SimpleImmutableEntry<>("error", code.message()));
+        entries.add(new SimpleImmutableEntry<>("code", code.name()));
+        return entries;
+    }
+}
@@ -0,0 +1,36 @@
+package com.tedtalks.util;
+
+import java.util.Locale;
+
+/**
+ * Kinds of CSV validation errors with the message reported to the client.
+ */
+public enum CsvErrorCode {
+    INVALID_HEADER("CSV file contains empty or invalid column names."),
+    MISSING_FIELDS("Missing required fields."),
+    DUPLICATE_LINK("Duplicate TED Talk link found."),
+    DUPLICATE_LINK_IN_FILE("Duplicate TED Talk link found in the same CSV file."),
+    NEGATIVE_NUMBER("Number must be non-negative."),
+    INVALID_NUMBER("Invalid number format."),
+    FUTURE_DATE("Date cannot be in the future."),
+    INVALID_DATE("Invalid date format. Expected format: 'MMMM yyyy' (Example: 'February 2025').");
+
+    private final String message;
+    private final String type;
+
+    CsvErrorCode(String message) {
+        this.message = message;
+        this.type = name().toLowerCase(Locale.ROOT);
+    }
+
+    public String message() {
+        return message;
+    }
+
+    /**
+     * Short, stable name used as a metric tag, e.g. {@code invalid_date}.
+     */
+    public String type() {
+        return type;
+    }
+}
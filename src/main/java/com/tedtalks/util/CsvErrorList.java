@@ -0,0 +1,77 @@
+package com.tedtalks.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Error list of one import that keeps the first {@code maxReported} errors and only counts the rest,
+ * so a file full of bad rows cannot produce an unbounded response.
+ *
+ * {@link #size()} is the number of kept errors and {@link #totalCount()} the number added. With
+ * {@code maxReported >= 1} the list is empty exactly when no error was added.
+ */
+public class CsvErrorList extends AbstractList<Map<String, Object>> {
+    private static final String OTHER_TYPE = "other";
+
+    private final int maxReported;
+    private final List<Map<String, Object>> reported = new ArrayList<>();
+    private final long[] countsByCode = new long[CsvErrorCode.values().length];
+    private long otherCount;
+
+    public CsvErrorList(int maxReported) {
+        if (maxReported < 1) {
+            throw new IllegalArgumentException("maxReported must be at least 1");
+        }
+        this.maxReported = maxReported;
+    }
+
+    @Override
+    public boolean add(Map<String, Object> error) {
+        if (error instanceof CsvError csvError) {
+            countsByCode[csvError.code().ordinal()]++;
+        } else {
+            otherCount++;
+        }
+        if (reported.size() < maxReported) {
+            reported.add(error);
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> get(int index) {
+        return reported.get(index);
+    }
+
+    @Override
+    public int size() {
+        return reported.size();
+    }
+
+    public long totalCount() {
+        long total = otherCount;
+        for (long count : countsByCode) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Number of errors of each {@link CsvErrorCode#type()} added, including those not kept.
+     */
+    public Map<String, Long> countsByType() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (CsvErrorCode code : CsvErrorCode.values()) {
+            if (countsByCode[code.ordinal()] > 0) {
+                counts.put(code.type(), countsByCode[code.ordinal()]);
+            }
+        }
+        if (otherCount > 0) {
+            counts.put(OTHER_TYPE, otherCount);
+        }
+        return counts;
+    }
+}
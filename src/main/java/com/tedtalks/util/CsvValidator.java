@@ -11,21 +11,33 @@ import java.io.Reader;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.Month;
+import java.time.format.TextStyle;
 import java.util.*;
 
 public class CsvValidator {
+    public static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.withFirstRecordAsHeader().withIgnoreHeaderCase().withTrim().withAllowMissingColumnNames();
+
+    /**
+     * Row number of the first data record; row 1 is the header.
+     */
+    public static final int FIRST_DATA_ROW = 2;
+
+    /**
+     * Full English month names in calendar order, matched case-sensitively like the "MMMM" pattern.
+     */
+    private static final String[] MONTH_NAMES = Arrays.stream(Month.values())
+            .map(month -> month.getDisplayName(TextStyle.FULL, Locale.ENGLISH))
+            .toArray(String[]::new);
+
     public static List<Map<String, Object>> validateCsv(MultipartFile file, Set<String> existingLinks) throws IOException {
         List<Map<String, Object>> errors = new ArrayList<>();
         Set<String> linksInCSVFile = new HashSet<>();
 
         try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
-             CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader().withIgnoreHeaderCase().withTrim().withAllowMissingColumnNames())) {
+             CSVParser csvParser = openParser(reader)) {
 
-            if (!validateHeaders(csvParser)) {
-                throw new BadRequestException("CSV Validation Failed", List.of(Map.of("error", "CSV file contains empty or invalid column names.")));
-            }
-            int rowNum = 2;
+            int rowNum = FIRST_DATA_ROW;
             for (CSVRecord record : csvParser) {
                 validateRow(record, rowNum, errors, existingLinks, linksInCSVFile);
                 rowNum++;
@@ -34,64 +46,154 @@ public class CsvValidator {
         return errors;
     }
 
-    private static void validateRow(CSVRecord record, int rowNum, List<Map<String, Object>> errors, Set<String> existingLinks, Set<String> newLinks) {
+    /**
+     * Opens a parser over the reader and fails fast when the header row lacks a required column.
+     */
+    public static CSVParser openParser(Reader reader) throws IOException {
+        CSVParser csvParser = new CSVParser(reader, CSV_FORMAT);
+        if (!validateHeaders(csvParser)) {
+            csvParser.close();
+            throw new BadRequestException("CSV Validation Failed", List.of(CsvError.of(CsvErrorCode.INVALID_HEADER)));
+        }
+        return csvParser;
+    }
+
+    /**
+     * Validates a single record, appending any problems to errors.
+     *
+     * @return true if the row produced no errors and can be imported
+     */
+    public static boolean validateRow(CSVRecord record, int rowNum, List<Map<String, Object>> errors, Set<String> existingLinks, Set<String> newLinks) {
         if (!isValidRecord(record)) {
-            errors.add(Map.of("row", rowNum, "error", "Missing required fields."));
-            return;
+            errors.add(missingFieldsError(rowNum));
+            return false;
         }
+        return validateLink(record.get("link").trim(), rowNum, errors, existingLinks, newLinks)
+                && validateFields(record, rowNum, errors);
+    }
+
+    /**
+     * Type of a validation error, e.g. {@code invalid_date}; {@code other} for errors not raised here.
+     */
+    public static String errorType(Map<String, Object> error) {
+        return error instanceof CsvError csvError ? csvError.code().type() : "other";
+    }
+
+    public static Map<String, Object> missingFieldsError(int rowNum) {
+        return CsvError.of(rowNum, CsvErrorCode.MISSING_FIELDS);
+    }
 
-        String link = record.get("link").trim();
+    /**
+     * Checks the link against the database and the rest of the file. Depends on the links seen
+     * so far, so rows must be passed in file order.
+     *
+     * @return false if the link is a duplicate
+     */
+    public static boolean validateLink(String link, int rowNum, List<Map<String, Object>> errors, Set<String> existingLinks, Set<String> newLinks) {
         // Check if the link already exists in the database
         if (existingLinks.contains(link)) {
-            errors.add(Map.of("row", rowNum, "column", "link", "value", link, "error", "Duplicate TED Talk link found."));
-            return;
+            errors.add(CsvError.of(rowNum, "link", link, CsvErrorCode.DUPLICATE_LINK));
+            return false;
         }
 
         // Check if the link is duplicated within the same CSV file
         if (!newLinks.add(link)) {
-            errors.add(Map.of(
-                    "row", rowNum,
-                    "column", "link",
-                    "value", link,
-                    "error", "Duplicate TED Talk link found in the same CSV file."
-            ));
-            return;
+            errors.add(CsvError.of(rowNum, "link", link, CsvErrorCode.DUPLICATE_LINK_IN_FILE));
+            return false;
         }
-        validateNumber(record.get("views"), "views", rowNum, errors);
-        validateNumber(record.get("likes"), "likes", rowNum, errors);
-        validateDate(record.get("date"), rowNum, errors);
+        return true;
+    }
+
+    /**
+     * Checks views, likes and date of a record that has all required fields. Uses no shared state,
+     * so it can run on any thread.
+     *
+     * @return true if none of the three has an error
+     */
+    public static boolean validateFields(CSVRecord record, int rowNum, List<Map<String, Object>> errors) {
+        boolean valid = validateNumber(record.get("views"), "views", rowNum, errors);
+        valid &= validateNumber(record.get("likes"), "likes", rowNum, errors);
+        return validateDate(record.get("date"), rowNum, errors) && valid;
     }
 
-    private static void validateNumber(String value, String columnName, int rowNum, List<Map<String, Object>> errors) {
-        try {
-            BigInteger number = new BigInteger(value.trim());
-            if (number.compareTo(BigInteger.ZERO) < 0) {
-                errors.add(Map.of(
-                        "row", rowNum, "column", columnName, "value", value,
-                        "error", "Number must be non-negative."
-                ));
+    private static boolean validateNumber(String value, String columnName, int rowNum, List<Map<String, Object>> errors) {
+        CsvErrorCode error = checkNumber(value);
+        if (error != null) {
+            errors.add(CsvError.of(rowNum, columnName, value, error));
+        }
+        return error == null;
+    }
+
+    /**
+     * Scans the digits in place instead of building a {@link BigInteger}. Accepts what {@code new BigInteger(value.trim())}
+     * accepts: an optional sign followed by one or more decimal digits.
+     *
+     * @return null for a non-negative number, otherwise the error
+     */
+    static CsvErrorCode checkNumber(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') start++;
+        while (end > start && value.charAt(end - 1) <= ' ') end--;
+        boolean negative = false;
+        if (start < end && (value.charAt(start) == '-' || value.charAt(start) == '+')) {
+            negative = value.charAt(start) == '-';
+            start++;
+        }
+        if (start == end) {
+            return CsvErrorCode.INVALID_NUMBER;
+        }
+        boolean zero = true;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(value.charAt(i), 10);
+            if (digit < 0) {
+                return CsvErrorCode.INVALID_NUMBER;
             }
-        } catch (NumberFormatException e) {
-            errors.add(Map.of("row", rowNum, "column", columnName, "value", value, "error", "Invalid number format."));
+            zero &= digit == 0;
+        }
+        return negative && !zero ? CsvErrorCode.NEGATIVE_NUMBER : null;
+    }
+
+    private static boolean validateDate(String dateStr, int rowNum, List<Map<String, Object>> errors) {
+        LocalDate parsedDate = parseMonthYear(dateStr);
+        if (parsedDate == null) {
+            errors.add(CsvError.of(rowNum, "date", dateStr, CsvErrorCode.INVALID_DATE));
+            return false;
+        }
+        if (parsedDate.isAfter(LocalDate.now())) {
+            errors.add(CsvError.of(rowNum, "date", dateStr, CsvErrorCode.FUTURE_DATE));
+            return false;
         }
+        return true;
     }
 
-    private static void validateDate(String dateStr, int rowNum, List<Map<String, Object>> errors) {
-        DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("MMMM yyyy dd", Locale.ENGLISH);
-        try {
-            LocalDate parsedDate = LocalDate.parse(dateStr + " 01", FORMATTER);
-            if (parsedDate.isAfter(LocalDate.now())) {
-                errors.add(Map.of(
-                        "row", rowNum, "column", "date", "value", dateStr,
-                        "error", "Date cannot be in the future."
-                ));
+    /**
+     * First day of a "MMMM yyyy" month such as "February 2025", or null if the text is not in that form.
+     * Matches the month name against a precompiled table and reads the four year digits directly.
+     */
+    public static LocalDate parseMonthYear(String text) {
+        int space = text.indexOf(' ');
+        if (space < 0 || text.length() != space + 5) {
+            return null;
+        }
+        int month = 0;
+        while (month < MONTH_NAMES.length
+                && !(MONTH_NAMES[month].length() == space && text.startsWith(MONTH_NAMES[month]))) {
+            month++;
+        }
+        if (month == MONTH_NAMES.length) {
+            return null;
+        }
+        int year = 0;
+        for (int i = space + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
             }
-        } catch (Exception e) {
-            errors.add(Map.of(
-                    "row", rowNum, "column", "date", "value", dateStr,
-                    "error", "Invalid date format. Expected format: 'MMMM yyyy' (Example: 'February 2025')."
-            ));
+            year = year * 10 + (c - '0');
         }
+        // Year of era, as with the "yyyy" pattern
+        return year == 0 ? null : LocalDate.of(year, month + 1, 1);
     }
 
     private static boolean validateHeaders(CSVParser csvParser) {
@@ -103,7 +205,7 @@ public class CsvValidator {
     /**
      * Validates whether the CSV record contains all required fields and is not empty.
      */
-    private static boolean isValidRecord(CSVRecord record) {
+    public static boolean isValidRecord(CSVRecord record) {
         return record.isSet("title") && !record.get("title").isBlank()
                 && record.isSet("author") && !record.get("author").isBlank()
                 && record.isSet("views") && !record.get("views").isBlank()
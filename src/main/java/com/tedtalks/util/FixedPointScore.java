@@ -0,0 +1,135 @@
+package com.tedtalks.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Influence score arithmetic on {@code long} values in fixed point with 5 decimal places.
+ *
+ * Every step rounds exactly like the {@link BigDecimal} formulas in {@code TedTalksService} (HALF_UP at scale 5),
+ * so results are identical, not just close. Methods throw {@link ArithmeticException} when an intermediate
+ * value does not fit in a {@code long}; callers then fall back to the {@code BigDecimal} implementation.
+ */
+public final class FixedPointScore {
+    public static final int SCALE = 5;
+    private static final long ONE = 100_000L;
+    private static final int MAX_WEIGHT_SCALE = 12;
+
+    private FixedPointScore() {
+    }
+
+    /**
+     * max(1, whole months from date to today * 30), as {@code date.until(today).toTotalMonths()} without the Period.
+     */
+    public static long daysSincePublished(LocalDate date, LocalDate today) {
+        long months = (today.getYear() * 12L + today.getMonthValue()) - (date.getYear() * 12L + date.getMonthValue())
+                - (today.getDayOfMonth() < date.getDayOfMonth() ? 1 : 0);
+        return Math.max(1, months * 30L);
+    }
+
+    /**
+     * (likes / views rounded to 5 places) * 100, unscaled at {@link #SCALE}.
+     */
+    public static long engagementRate(long views, long likes) {
+        if (views == 0) return 0;
+        return Math.multiplyExact(divideHalfUp(Math.multiplyExact(likes, ONE), views), 100L);
+    }
+
+    /**
+     * (views + likes) / days rounded to 5 places, unscaled at {@link #SCALE}.
+     */
+    public static long growthRate(long views, long likes, long days) {
+        if (views == 0 || likes == 0) return 0;
+        return divideHalfUp(Math.multiplyExact(Math.addExact(views, likes), ONE), days);
+    }
+
+    /**
+     * Weighted influence score rounded to 5 places, unscaled at {@link #SCALE}.
+     *
+     * @param engagementRate unscaled at {@link #SCALE}
+     * @param growthRate     unscaled at {@link #SCALE}
+     */
+    public static long influenceScore(long views, long likes, long engagementRate, long growthRate, Weights weights) {
+        return weights.round(weightedSum(views, likes, engagementRate, growthRate, weights));
+    }
+
+    /**
+     * Weighted influence score before rounding, unscaled at {@link #SCALE} plus the decimal places of the weights. Orders talks exactly
+     * like the database does when it sorts by the weighted stored rates.
+     *
+     * @param engagementRate unscaled at {@link #SCALE}
+     * @param growthRate     unscaled at {@link #SCALE}
+     */
+    public static long weightedSum(long views, long likes, long engagementRate, long growthRate, Weights weights) {
+        long sum = Math.multiplyExact(Math.multiplyExact(views, weights.views), ONE);
+        sum = Math.addExact(sum, Math.multiplyExact(Math.multiplyExact(likes, weights.likes), ONE));
+        sum = Math.addExact(sum, Math.multiplyExact(engagementRate, weights.engagement));
+        return Math.addExact(sum, Math.multiplyExact(growthRate, weights.growth));
+    }
+
+    /**
+     * Division rounding half away from zero, like {@code RoundingMode.HALF_UP}; divisor must be positive.
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    /**
+     * Score weights as unscaled longs at a common scale, built once per query.
+     */
+    public static final class Weights {
+        private final BigDecimal viewsWeight;
+        private final BigDecimal likesWeight;
+        private final BigDecimal engagementWeight;
+        private final BigDecimal growthWeight;
+        private final long views;
+        private final long likes;
+        private final long engagement;
+        private final long growth;
+        private final long divisor;
+
+        private Weights(BigDecimal viewsWeight, BigDecimal likesWeight, BigDecimal engagementWeight, BigDecimal growthWeight) {
+            this.viewsWeight = viewsWeight;
+            this.likesWeight = likesWeight;
+            this.engagementWeight = engagementWeight;
+            this.growthWeight = growthWeight;
+            int scale = Math.max(0, Math.max(Math.max(viewsWeight.scale(), likesWeight.scale()),
+                    Math.max(engagementWeight.scale(), growthWeight.scale())));
+            if (scale > MAX_WEIGHT_SCALE) {
+                throw new ArithmeticException("Weight scale " + scale + " is too large for fixed point scoring");
+            }
+            this.views = viewsWeight.setScale(scale).unscaledValue().longValueExact();
+            this.likes = likesWeight.setScale(scale).unscaledValue().longValueExact();
+            this.engagement = engagementWeight.setScale(scale).unscaledValue().longValueExact();
+            this.growth = growthWeight.setScale(scale).unscaledValue().longValueExact();
+            this.divisor = BigDecimal.ONE.scaleByPowerOfTen(scale).longValueExact();
+        }
+
+        /**
+         * A {@link #weightedSum}, or a sum of them, rounded to {@link #SCALE} places.
+         */
+        public long round(long weightedSum) {
+            return divideHalfUp(weightedSum, divisor);
+        }
+
+        /**
+         * @throws ArithmeticException if a weight has too many decimal places or does not fit in a long
+         */
+        public static Weights of(BigDecimal viewsWeight, BigDecimal likesWeight, BigDecimal engagementWeight, BigDecimal growthWeight) {
+            return new Weights(viewsWeight, likesWeight, engagementWeight, growthWeight);
+        }
+
+        /**
+         * True if these weights were built from exactly these instances, so callers can reuse them without comparing values.
+         */
+        public boolean isFor(BigDecimal viewsWeight, BigDecimal likesWeight, BigDecimal engagementWeight, BigDecimal growthWeight) {
+            return this.viewsWeight == viewsWeight && this.likesWeight == likesWeight
+                    && this.engagementWeight == engagementWeight && this.growthWeight == growthWeight;
+        }
+    }
+}
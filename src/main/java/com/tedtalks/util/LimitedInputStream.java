@@ -0,0 +1,61 @@
+package com.tedtalks.util;
+
+import com.tedtalks.exception.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Passes through at most {@code limit} bytes and fails the read that would go past it, so an oversized upload is
+ * rejected while it streams rather than after it has been stored.
+ */
+public class LimitedInputStream extends FilterInputStream {
+    private final long limit;
+    private long remaining;
+
+    public LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+        this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            consumed(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        // Once the limit is reached, read one more byte to tell the end of the stream from an overrun
+        int max = (int) Math.min(len, Math.max(remaining, 1));
+        int n = super.read(b, off, max);
+        if (n > 0) {
+            consumed(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, Math.max(remaining, 1)));
+        consumed(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void consumed(long bytes) {
+        remaining -= bytes;
+        if (remaining < 0) {
+            throw new PayloadTooLargeException(limit);
+        }
+    }
+}
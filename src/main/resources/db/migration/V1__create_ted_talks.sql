@@ -0,0 +1,21 @@
+-- Catalog of TED Talks, see com.tedtalks.entity.TedTalk
+CREATE TABLE ted_talks (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title           VARCHAR(255)   NOT NULL,
+    author          VARCHAR(255)   NOT NULL,
+    release_year    INTEGER        NOT NULL,
+    views           NUMERIC(38, 0) NOT NULL,
+    likes           NUMERIC(38, 0) NOT NULL,
+    date            DATE           NOT NULL,
+    link            VARCHAR(255),
+    engagement_rate NUMERIC(38, 5),
+    growth_rate     NUMERIC(38, 5),
+    content_hash    BIGINT,
+    CONSTRAINT uk_ted_talks_link UNIQUE (link)
+);
+
+CREATE INDEX idx_ted_talks_author ON ted_talks (author);
+CREATE INDEX idx_ted_talks_date ON ted_talks (date);
+CREATE INDEX idx_ted_talks_release_year ON ted_talks (release_year);
+CREATE INDEX idx_ted_talks_views ON ted_talks (views);
+CREATE INDEX idx_ted_talks_likes ON ted_talks (likes);
@@ -0,0 +1,26 @@
+-- Single-row lease serializing imports across nodes; owner is NULL while no import runs
+CREATE TABLE import_lease (
+    name       VARCHAR(32) NOT NULL PRIMARY KEY,
+    owner      VARCHAR(64),
+    expires_at TIMESTAMP
+);
+INSERT INTO import_lease (name) VALUES ('csv-import');
+
+-- Successful imports by SHA-256 of the CSV, so a retried upload is answered instead of imported twice
+CREATE TABLE import_batches (
+    file_hash      CHAR(64)    NOT NULL PRIMARY KEY,
+    import_mode    VARCHAR(16) NOT NULL,
+    rows_written   INTEGER     NOT NULL,
+    rows_updated   BIGINT      NOT NULL,
+    rows_unchanged BIGINT      NOT NULL,
+    imported_at    TIMESTAMP   NOT NULL
+);
+
+-- Bumped by every import that wrote talks; rewrites counts those that changed stored talks.
+-- Each node polls it to refresh its in-memory stores and caches after imports made elsewhere.
+CREATE TABLE catalog_version (
+    id       INTEGER NOT NULL PRIMARY KEY,
+    version  BIGINT  NOT NULL,
+    rewrites BIGINT  NOT NULL
+);
+INSERT INTO catalog_version (id, version, rewrites) VALUES (1, 0, 0);
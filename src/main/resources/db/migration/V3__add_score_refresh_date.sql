@@ -0,0 +1,2 @@
+-- Day of the last refresh of the stored engagement and growth rates, so only one node refreshes per day
+ALTER TABLE catalog_version ADD COLUMN scores_refreshed_on DATE;
@@ -0,0 +1,13 @@
+-- Keyset paging orders by (sort key, id) and seeks past the last (sort key, id) returned; one index per sort key
+-- serves both the seek and the order, so a page reads only its own rows. Each replaces the single-column index on
+-- its key, which remains usable as a prefix for lookups and ranges.
+CREATE INDEX idx_ted_talks_title_id ON ted_talks (title, id);
+CREATE INDEX idx_ted_talks_author_id ON ted_talks (author, id);
+CREATE INDEX idx_ted_talks_views_id ON ted_talks (views, id);
+CREATE INDEX idx_ted_talks_likes_id ON ted_talks (likes, id);
+CREATE INDEX idx_ted_talks_date_id ON ted_talks (date, id);
+
+DROP INDEX idx_ted_talks_author;
+DROP INDEX idx_ted_talks_views;
+DROP INDEX idx_ted_talks_likes;
+DROP INDEX idx_ted_talks_date;
@@ -0,0 +1,109 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.service.TalksImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({TalkColumnStore.class, SnapshotStorage.class, AuthorLeaderboard.class})
+class AuthorLeaderboardTest {
+
+    @Autowired
+    private TalkColumnStore talkColumnStore;
+
+    @Autowired
+    private AuthorLeaderboard authorLeaderboard;
+
+    @Autowired
+    private TedTalksRepository tedTalksRepository;
+
+    @BeforeEach
+    void setUp() {
+        tedTalksRepository.saveAllAndFlush(List.of(
+                talk("Small", "Jane Doe", 1_000, 10),
+                talk("Liked", "John Doe", 2_000, 1_900),
+                talk("Viewed", "Jane Doe", 5_000, 100)));
+        talkColumnStore.rebuild();
+        authorLeaderboard.rebuild();
+    }
+
+    @Test
+    void testTop_AggregatesPerAuthor() {
+        List<AuthorStats> top = authorLeaderboard.top(AuthorRanking.VIEWS, 10);
+
+        assertTrue(authorLeaderboard.isReady());
+        assertEquals(List.of("Jane Doe", "John Doe"), top.stream().map(AuthorStats::author).toList());
+        AuthorStats jane = top.get(0);
+        assertEquals(2, jane.talkCount());
+        assertEquals(BigInteger.valueOf(6_000), jane.totalViews());
+        assertEquals(BigInteger.valueOf(110), jane.totalLikes());
+        assertEquals(new BigDecimal("3000.00000"), jane.meanViews());
+        assertEquals(new BigDecimal("55.00000"), jane.meanLikes());
+    }
+
+    @Test
+    void testTop_RanksAndLimits() {
+        assertEquals(List.of("John Doe"), authorLeaderboard.top(AuthorRanking.LIKES, 1).stream().map(AuthorStats::author).toList());
+        assertEquals("Jane Doe", authorLeaderboard.top(AuthorRanking.INFLUENCE, 1).get(0).author());
+        assertTrue(authorLeaderboard.top(AuthorRanking.TALKS, 0).isEmpty());
+    }
+
+    @Test
+    void testTop_TiesGoToAuthorName() {
+        tedTalksRepository.saveAndFlush(talk("Other", "Anna Doe", 1_000, 10));
+        talkColumnStore.rebuild();
+        authorLeaderboard.rebuild();
+
+        List<AuthorStats> top = authorLeaderboard.top(AuthorRanking.TALKS, 3);
+
+        assertEquals(List.of("Jane Doe", "Anna Doe", "John Doe"), top.stream().map(AuthorStats::author).toList());
+    }
+
+    @Test
+    void testImport_FoldsNewRowsIntoExistingAuthors() {
+        tedTalksRepository.saveAndFlush(talk("Huge", "John Doe", 9_000_000, 5));
+        talkColumnStore.onTalksImported(new TalksImportedEvent(1));
+
+        authorLeaderboard.onTalksImported(new TalksImportedEvent(1));
+
+        AuthorStats john = authorLeaderboard.top(AuthorRanking.VIEWS, 1).get(0);
+        assertEquals("John Doe", john.author());
+        assertEquals(2, john.talkCount());
+        assertEquals(BigInteger.valueOf(9_002_000), john.totalViews());
+    }
+
+    @Test
+    void testTotalsBeyondLongRange() {
+        tedTalksRepository.saveAndFlush(talk("Max1", "Max Doe", Long.MAX_VALUE, 0));
+        tedTalksRepository.saveAndFlush(talk("Max2", "Max Doe", Long.MAX_VALUE, 0));
+        talkColumnStore.rebuild();
+        authorLeaderboard.rebuild();
+
+        AuthorStats max = authorLeaderboard.top(AuthorRanking.VIEWS, 1).get(0);
+
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1), max.totalViews());
+    }
+
+    private TedTalk talk(String title, String author, long views, long likes) {
+        return TedTalk.builder()
+                .title(title)
+                .author(author)
+                .views(BigInteger.valueOf(views))
+                .likes(BigInteger.valueOf(likes))
+                .date(LocalDate.of(2021, 1, 1))
+                .link("https://ted.com/talks/" + title)
+                .build();
+    }
+}
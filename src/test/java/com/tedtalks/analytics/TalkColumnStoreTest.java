@@ -0,0 +1,239 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.service.TalksImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({TalkColumnStore.class, SnapshotStorage.class})
+class TalkColumnStoreTest {
+    private static final ScoreWeights DEFAULT_WEIGHTS = ScoreWeights.DEFAULT;
+
+    @Autowired
+    private TalkColumnStore talkColumnStore;
+
+    @Autowired
+    private TedTalksRepository tedTalksRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path snapshotDir;
+
+    private List<TedTalk> talks;
+
+    @BeforeEach
+    void setUp() {
+        talks = tedTalksRepository.saveAllAndFlush(List.of(
+                talk("Small", "Jane Doe", 1_000, 10, LocalDate.of(2020, 1, 1)),
+                talk("Liked", "John Doe", 2_000, 1_900, LocalDate.of(2021, 3, 1)),
+                talk("Viewed", "Jane Doe", 5_000, 100, LocalDate.of(2021, 6, 1))));
+        talkColumnStore.rebuild();
+    }
+
+    @Test
+    void testRebuild_LoadsColumns() {
+        TalkColumns columns = talkColumnStore.columns();
+
+        assertTrue(talkColumnStore.isReady());
+        assertEquals(3, columns.size());
+        assertEquals("Jane Doe", columns.author(2));
+        assertEquals(LocalDate.of(2021, 6, 1).toEpochDay(), columns.epochDay(2));
+    }
+
+    @Test
+    void testTopByInfluence() {
+        assertArrayEquals(new long[]{talks.get(2).getId(), talks.get(1).getId(), talks.get(0).getId()},
+                talkColumnStore.topByInfluence(DEFAULT_WEIGHTS, 10));
+        assertArrayEquals(new long[]{talks.get(2).getId(), talks.get(1).getId()},
+                talkColumnStore.topByInfluence(DEFAULT_WEIGHTS, 2));
+        assertEquals(0, talkColumnStore.topByInfluence(DEFAULT_WEIGHTS, 0).length);
+    }
+
+    @Test
+    void testTopByInfluence_TiesGoToLowerId() {
+        long[] top = talkColumnStore.topByInfluence(ScoreWeights.of(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO), 2);
+
+        assertArrayEquals(new long[]{talks.get(0).getId(), talks.get(1).getId()}, top);
+    }
+
+    // 1/3 and 33333/100000 differ before rounding but store the same engagement rate, so they tie like in the database
+    @Test
+    void testFindMostInfluential_RanksByRoundedRates() {
+        TedTalk rounded = tedTalksRepository.saveAndFlush(talk("Rounded", "Jane Doe", 100_000, 33_333, LocalDate.of(2015, 1, 1)));
+        tedTalksRepository.saveAndFlush(talk("Third", "John Doe", 3, 1, LocalDate.of(2015, 1, 1)));
+        talkColumnStore.appendNewRows();
+        ScoreWeights engagementOnly = ScoreWeights.of(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ONE, BigDecimal.ZERO);
+
+        OptionalLong best = talkColumnStore.findMostInfluential(engagementOnly,
+                (int) LocalDate.of(2015, 1, 1).toEpochDay(), (int) LocalDate.of(2015, 12, 31).toEpochDay());
+
+        assertEquals(OptionalLong.of(rounded.getId()), best);
+    }
+
+    @Test
+    void testFindMostInfluential_WithinDateRange() {
+        OptionalLong best = talkColumnStore.findMostInfluential(DEFAULT_WEIGHTS,
+                (int) LocalDate.of(2020, 1, 1).toEpochDay(), (int) LocalDate.of(2020, 12, 31).toEpochDay());
+
+        assertEquals(OptionalLong.of(talks.get(0).getId()), best);
+        assertTrue(talkColumnStore.findMostInfluential(DEFAULT_WEIGHTS, 0, 1).isEmpty());
+    }
+
+    @Test
+    void testAppendNewRows() {
+        TedTalk added = tedTalksRepository.saveAndFlush(talk("Huge", "Mark Smith", 9_000_000, 5, LocalDate.of(2019, 1, 1)));
+
+        talkColumnStore.appendNewRows();
+
+        assertEquals(4, talkColumnStore.columns().size());
+        assertEquals(added.getId(), talkColumnStore.topByInfluence(DEFAULT_WEIGHTS, 1)[0]);
+    }
+
+    // An upsert that changed stored counts reloads them
+    @Test
+    void testOnTalksImported_ReloadsUpdatedRows() {
+        TedTalk small = talks.get(0);
+        small.setViews(BigInteger.valueOf(9_000_000));
+        tedTalksRepository.saveAndFlush(small);
+
+        talkColumnStore.onTalksImported(new TalksImportedEvent(1, 1));
+
+        assertEquals(3, talkColumnStore.columns().size());
+        assertEquals(9_000_000, talkColumnStore.columns().views(0));
+        assertEquals(small.getId(), talkColumnStore.topByInfluence(DEFAULT_WEIGHTS, 1)[0]);
+    }
+
+    // A talk committed after one with a higher id was loaded is behind the append cursor, so the store reloads
+    @Test
+    void testOnTalksImported_ReloadsRowsCommittedOutOfOrder() {
+        long lastId = talks.get(2).getId();
+        insertTalk(lastId + 10);
+        talkColumnStore.onTalksImported(new TalksImportedEvent(1));
+        insertTalk(lastId + 5);
+
+        talkColumnStore.onTalksImported(new TalksImportedEvent(1));
+
+        TalkColumns columns = talkColumnStore.columns();
+        assertEquals(5, columns.size());
+        assertEquals(lastId + 5, columns.id(3));
+        assertEquals(lastId + 10, columns.id(4));
+    }
+
+    // Readers keep the loaded catalog while a rebuild reads the database
+    @Test
+    void testRebuild_KeepsPublishedColumnsUntilLoaded() {
+        AtomicReference<TalkColumnStore> store = new AtomicReference<>();
+        List<Integer> sizesSeen = new ArrayList<>();
+        JdbcTemplate observing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch, Object... args) {
+                super.query(sql, (ResultSet rs) -> {
+                    sizesSeen.add(store.get().columns().size());
+                    rch.processRow(rs);
+                }, args);
+            }
+        };
+        store.set(new TalkColumnStore(observing, new SnapshotStorage(jdbcTemplate, "")));
+        store.get().rebuild();
+        sizesSeen.clear();
+
+        store.get().rebuild();
+
+        assertEquals(List.of(3, 3, 3), sizesSeen);
+        assertEquals(3, store.get().columns().size());
+        assertTrue(store.get().isReady());
+    }
+
+    // A restart restores the snapshot and only reads the talks added after it
+    @Test
+    void testLoad_RestoresSnapshotAndAppendsNewRows() {
+        SnapshotStorage snapshotStorage = new SnapshotStorage(jdbcTemplate, snapshotDir.toString());
+        new TalkColumnStore(jdbcTemplate, snapshotStorage).rebuild();
+        assertTrue(Files.exists(snapshotDir.resolve("talk-columns.snapshot")));
+        // Not part of the content hash, so only a full reload would see the new name
+        jdbcTemplate.update("UPDATE ted_talks SET author = 'Renamed' WHERE id = ?", talks.get(0).getId());
+        TedTalk added = tedTalksRepository.saveAndFlush(talk("Huge", "Mark Smith", 9_000_000, 5, LocalDate.of(2019, 1, 1)));
+
+        TalkColumnStore restarted = new TalkColumnStore(jdbcTemplate, snapshotStorage);
+        restarted.load();
+
+        assertTrue(restarted.isReady());
+        assertEquals(4, restarted.columns().size());
+        assertEquals("Jane Doe", restarted.columns().author(0));
+        assertEquals("Mark Smith", restarted.columns().author(3));
+        assertEquals(added.getId(), restarted.topByInfluence(DEFAULT_WEIGHTS, 1)[0]);
+    }
+
+    @Test
+    void testLoad_RebuildsWhenSnapshotIsStale() {
+        SnapshotStorage snapshotStorage = new SnapshotStorage(jdbcTemplate, snapshotDir.toString());
+        new TalkColumnStore(jdbcTemplate, snapshotStorage).rebuild();
+        TedTalk small = talks.get(0);
+        small.setViews(BigInteger.valueOf(9_000_000));
+        tedTalksRepository.saveAndFlush(small);
+
+        TalkColumnStore restarted = new TalkColumnStore(jdbcTemplate, snapshotStorage);
+        restarted.load();
+
+        assertEquals(3, restarted.columns().size());
+        assertEquals(9_000_000, restarted.columns().views(0));
+    }
+
+    // A damaged file fails its checksum and the store reads the database instead
+    @Test
+    void testLoad_RebuildsWhenSnapshotIsCorrupt() throws IOException {
+        SnapshotStorage snapshotStorage = new SnapshotStorage(jdbcTemplate, snapshotDir.toString());
+        new TalkColumnStore(jdbcTemplate, snapshotStorage).rebuild();
+        Path file = snapshotDir.resolve("talk-columns.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        jdbcTemplate.update("UPDATE ted_talks SET author = 'Renamed' WHERE id = ?", talks.get(0).getId());
+
+        TalkColumnStore restarted = new TalkColumnStore(jdbcTemplate, snapshotStorage);
+        restarted.load();
+
+        assertEquals(3, restarted.columns().size());
+        assertEquals("Renamed", restarted.columns().author(0));
+    }
+
+    private void insertTalk(long id) {
+        jdbcTemplate.update("INSERT INTO ted_talks (id, title, author, release_year, views, likes, date, link, content_hash)"
+                + " VALUES (?, 'Late', 'Late Doe', 2020, 1000, 10, DATE '2020-01-01', ?, 1)", id, "https://ted.com/talks/late" + id);
+    }
+
+    private TedTalk talk(String title, String author, long views, long likes, LocalDate date) {
+        return TedTalk.builder()
+                .title(title)
+                .author(author)
+                .views(BigInteger.valueOf(views))
+                .likes(BigInteger.valueOf(likes))
+                .date(date)
+                .link("https://ted.com/talks/" + title)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.service.TalksImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({TalkSearchIndex.class, SnapshotStorage.class})
+class TalkSearchIndexTest {
+
+    @Autowired
+    private TalkSearchIndex talkSearchIndex;
+
+    @Autowired
+    private TedTalksRepository tedTalksRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path snapshotDir;
+
+    private List<TedTalk> talks;
+
+    @BeforeEach
+    void setUp() {
+        talks = tedTalksRepository.saveAllAndFlush(List.of(
+                talk("The Future of AI", "Jane Doe", 1_000),
+                talk("AI and the Café Economy", "José Álvarez", 5_000_000),
+                talk("Why We Sleep", "Matthew Walker", 9_000_000)));
+        talkSearchIndex.rebuild();
+    }
+
+    @Test
+    void testTokenize_FoldsCaseAndAccents() {
+        assertEquals(List.of("ai", "and", "the", "cafe", "economy"), TalkSearchIndex.tokenize("AI and the Café-Economy!"));
+        assertEquals(List.of(), TalkSearchIndex.tokenize("  --  "));
+    }
+
+    @Test
+    void testSearch_MatchesTitleAndAuthorPrefixes() {
+        assertArrayEquals(new long[]{id(1)}, talkSearchIndex.search("alva", 10));
+        assertArrayEquals(new long[]{id(1)}, talkSearchIndex.search("CAFE", 10));
+        assertArrayEquals(new long[]{id(2)}, talkSearchIndex.search("walk sle", 10));
+        assertEquals(0, talkSearchIndex.search("quantum", 10).length);
+    }
+
+    @Test
+    void testSearch_AllTokensMustMatch() {
+        assertArrayEquals(new long[]{id(0)}, talkSearchIndex.search("future ai", 10));
+    }
+
+    @Test
+    void testSearch_ExactWordsAndPopularityRankHigher() {
+        // Both titles contain "ai"; the more viewed talk wins
+        assertArrayEquals(new long[]{id(1), id(0)}, talkSearchIndex.search("ai", 10));
+        assertArrayEquals(new long[]{id(1)}, talkSearchIndex.search("ai", 1));
+    }
+
+    @Test
+    void testImport_IndexesNewRows() {
+        TedTalk added = tedTalksRepository.saveAndFlush(talk("Quantum Computing", "Jane Doe", 10));
+
+        talkSearchIndex.onTalksImported(new TalksImportedEvent(1));
+
+        assertArrayEquals(new long[]{added.getId()}, talkSearchIndex.search("quant", 10));
+        assertEquals(2, talkSearchIndex.search("jane", 10).length);
+    }
+
+    // Searches keep the published index while a rebuild reads the database
+    @Test
+    void testRebuild_KeepsPublishedIndexUntilLoaded() {
+        AtomicReference<TalkSearchIndex> index = new AtomicReference<>();
+        List<Integer> matchesSeen = new ArrayList<>();
+        JdbcTemplate observing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch, Object... args) {
+                super.query(sql, (ResultSet rs) -> {
+                    matchesSeen.add(index.get().search("ai", 10).length);
+                    rch.processRow(rs);
+                }, args);
+            }
+        };
+        index.set(new TalkSearchIndex(observing, new SnapshotStorage(jdbcTemplate, "")));
+        index.get().rebuild();
+        matchesSeen.clear();
+
+        index.get().rebuild();
+
+        assertEquals(List.of(2, 2, 2), matchesSeen);
+        assertArrayEquals(new long[]{id(1), id(0)}, index.get().search("ai", 10));
+    }
+
+    @Test
+    void testLoad_RestoresSnapshotAndIndexesNewRows() {
+        SnapshotStorage snapshotStorage = new SnapshotStorage(jdbcTemplate, snapshotDir.toString());
+        new TalkSearchIndex(jdbcTemplate, snapshotStorage).rebuild();
+        // Titles are not part of the content hash, so only a full reindex would see the new one
+        jdbcTemplate.update("UPDATE ted_talks SET title = 'Renamed' WHERE id = ?", id(2));
+        TedTalk added = tedTalksRepository.saveAndFlush(talk("Quantum Computing", "Jane Doe", 10));
+
+        TalkSearchIndex restarted = new TalkSearchIndex(jdbcTemplate, snapshotStorage);
+        restarted.load();
+
+        assertTrue(restarted.isReady());
+        assertArrayEquals(new long[]{id(2)}, restarted.search("sleep", 10));
+        assertArrayEquals(new long[]{added.getId()}, restarted.search("quant", 10));
+        assertArrayEquals(new long[]{id(1), id(0)}, restarted.search("ai", 10));
+    }
+
+    private long id(int index) {
+        return talks.get(index).getId();
+    }
+
+    private TedTalk talk(String title, String author, long views) {
+        return TedTalk.builder()
+                .title(title)
+                .author(author)
+                .views(BigInteger.valueOf(views))
+                .likes(BigInteger.valueOf(10))
+                .date(LocalDate.of(2021, 1, 1))
+                .link("https://ted.com/talks/" + title.replace(' ', '_'))
+                .build();
+    }
+}
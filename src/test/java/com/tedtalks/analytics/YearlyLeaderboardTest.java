@@ -0,0 +1,123 @@
+package com.tedtalks.analytics;
+
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.service.TalksImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({TalkColumnStore.class, SnapshotStorage.class, YearlyLeaderboard.class})
+class YearlyLeaderboardTest {
+
+    @Autowired
+    private TalkColumnStore talkColumnStore;
+
+    @Autowired
+    private YearlyLeaderboard yearlyLeaderboard;
+
+    @Autowired
+    private TedTalksRepository tedTalksRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<TedTalk> talks;
+
+    @BeforeEach
+    void setUp() {
+        talks = tedTalksRepository.saveAllAndFlush(List.of(
+                talk("Small", 1_000, 10, LocalDate.of(2020, 1, 1)),
+                talk("Liked", 2_000, 1_900, LocalDate.of(2021, 3, 1)),
+                talk("Viewed", 5_000, 100, LocalDate.of(2021, 6, 1))));
+        talkColumnStore.rebuild();
+        yearlyLeaderboard.rebuild();
+    }
+
+    @Test
+    void testRebuild_SummarizesEachYear() {
+        List<YearStats> summary = yearlyLeaderboard.summary();
+
+        assertTrue(yearlyLeaderboard.isReady());
+        assertEquals(List.of(2020, 2021), summary.stream().map(YearStats::year).toList());
+        YearStats year2021 = summary.get(1);
+        assertEquals(2, year2021.talkCount());
+        assertEquals(BigInteger.valueOf(7_000), year2021.totalViews());
+        assertEquals(BigInteger.valueOf(2_000), year2021.totalLikes());
+        assertEquals(talks.get(2).getId(), year2021.mostViewedId());
+        assertEquals(talks.get(1).getId(), year2021.mostLikedId());
+        assertEquals(talks.get(2).getId(), year2021.mostInfluentialId());
+    }
+
+    @Test
+    void testImport_FoldsOnlyNewRows() {
+        TedTalk added = tedTalksRepository.saveAndFlush(talk("Huge", 9_000_000, 5, LocalDate.of(2020, 5, 1)));
+        talkColumnStore.onTalksImported(new TalksImportedEvent(1));
+
+        yearlyLeaderboard.onTalksImported(new TalksImportedEvent(1));
+
+        YearStats year2020 = yearlyLeaderboard.summary().get(0);
+        assertEquals(2, year2020.talkCount());
+        assertEquals(BigInteger.valueOf(9_001_000), year2020.totalViews());
+        assertEquals(added.getId(), year2020.mostViewedId());
+        assertEquals(talks.get(0).getId(), year2020.mostLikedId());
+        assertEquals(added.getId(), year2020.mostInfluentialId());
+        assertEquals(2, yearlyLeaderboard.summary().get(1).talkCount());
+    }
+
+    // When the store reloads to pick up a talk committed out of id order, the totals are recomputed
+    @Test
+    void testImport_RecomputesWhenStoreReloadsEarlierRows() {
+        long lastId = talks.get(2).getId();
+        TalksImportedEvent imported = new TalksImportedEvent(1);
+        insertTalk(lastId + 10, 1_000);
+        talkColumnStore.onTalksImported(imported);
+        yearlyLeaderboard.onTalksImported(imported);
+        insertTalk(lastId + 5, 2_000);
+
+        talkColumnStore.onTalksImported(imported);
+        yearlyLeaderboard.onTalksImported(imported);
+
+        YearStats year2020 = yearlyLeaderboard.summary().get(0);
+        assertEquals(3, year2020.talkCount());
+        assertEquals(BigInteger.valueOf(4_000), year2020.totalViews());
+        assertEquals(lastId + 5, year2020.mostViewedId());
+    }
+
+    @Test
+    void testTotalsBeyondLongRange() {
+        tedTalksRepository.saveAndFlush(talk("Max1", Long.MAX_VALUE, 0, LocalDate.of(2019, 1, 1)));
+        tedTalksRepository.saveAndFlush(talk("Max2", Long.MAX_VALUE, 0, LocalDate.of(2019, 2, 1)));
+        talkColumnStore.rebuild();
+
+        yearlyLeaderboard.rebuild();
+
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1), yearlyLeaderboard.summary().get(0).totalViews());
+    }
+
+    private void insertTalk(long id, long views) {
+        jdbcTemplate.update("INSERT INTO ted_talks (id, title, author, release_year, views, likes, date, link, content_hash)"
+                + " VALUES (?, 'Late', 'Late Doe', 2020, ?, 10, DATE '2020-01-01', ?, 1)", id, views, "https://ted.com/talks/late" + id);
+    }
+
+    private TedTalk talk(String title, long views, long likes, LocalDate date) {
+        return TedTalk.builder()
+                .title(title)
+                .author("Author of " + title)
+                .views(BigInteger.valueOf(views))
+                .likes(BigInteger.valueOf(likes))
+                .date(date)
+                .link("https://ted.com/talks/" + title)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.tedtalks.benchmark;
+
+import com.tedtalks.TedtalksApplication;
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.repository.TedTalkBatchWriter;
+import com.tedtalks.repository.TedTalksRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rows/second of the per-row JPA {@code saveAll} path against {@link TedTalkBatchWriter}.
+ *
+ * Scores are reported per row (see {@link OperationsPerInvocation}), so ops/s reads as rows/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BulkInsertBenchmark {
+    private static final int ROWS = 5_000;
+
+    private ConfigurableApplicationContext context;
+    private TedTalksRepository tedTalksRepository;
+    private TedTalkBatchWriter tedTalkBatchWriter;
+    private TransactionTemplate transactionTemplate;
+    private long invocation;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(TedtalksApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        tedTalksRepository = context.getBean(TedTalksRepository.class);
+        tedTalkBatchWriter = context.getBean(TedTalkBatchWriter.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTable() {
+        tedTalksRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void repositorySaveAll() {
+        List<TedTalk> talks = newTalks();
+        transactionTemplate.executeWithoutResult(status -> tedTalksRepository.saveAll(talks));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void batchWriterInsertAll() {
+        List<TedTalk> talks = newTalks();
+        transactionTemplate.executeWithoutResult(status -> tedTalkBatchWriter.insertAll(talks));
+    }
+
+    private List<TedTalk> newTalks() {
+        long prefix = invocation++;
+        List<TedTalk> talks = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            talks.add(TedTalk.builder()
+                    .title("Talk " + i)
+                    .author("Author " + (i % 500))
+                    .views(BigInteger.valueOf(1_000_000L + i))
+                    .likes(BigInteger.valueOf(10_000L + i))
+                    .date(LocalDate.of(2000 + i % 25, 1 + i % 12, 1))
+                    .link("https://ted.com/talks/" + prefix + "_" + i)
+                    .build());
+        }
+        return talks;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BulkInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.tedtalks.benchmark;
+
+import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.service.CsvImportService;
+import com.tedtalks.service.ImportProgress;
+import com.tedtalks.service.TedTalksService;
+import com.tedtalks.util.CsvValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Whole-file cost of {@link CsvValidator#validateCsv} and {@link CsvImportService#processCsv} on a synthetic CSV.
+ * The repository is stubbed and written chunks are discarded, so no database time is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CsvImportBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private byte[] csv;
+    private MockMultipartFile file;
+    private CsvImportService csvImportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        csv = SyntheticTalks.csv(rows).getBytes(StandardCharsets.UTF_8);
+        file = new MockMultipartFile("file", "tedtalks.csv", "text/csv", csv);
+        TedTalksRepository tedTalksRepository = mock(TedTalksRepository.class);
+        when(tedTalksRepository.findExistingLinks(anyCollection())).thenReturn(Set.of());
+        csvImportService = new CsvImportService(tedTalksRepository, new TedTalksService(tedTalksRepository, null, null, null, null, 1000),
+                null, 1000, Runnable::run, 1, event -> { }, new SimpleMeterRegistry(), 1000, DataSize.ofGigabytes(2), null);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> validateCsv() throws IOException {
+        return CsvValidator.validateCsv(file, Set.of());
+    }
+
+    @Benchmark
+    public int processCsv(Blackhole blackhole) throws IOException {
+        return csvImportService.processCsv(new ByteArrayInputStream(csv), new ArrayList<>(), new ImportProgress(),
+                blackhole::consume);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CsvImportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
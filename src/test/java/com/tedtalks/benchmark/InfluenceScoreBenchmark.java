@@ -0,0 +1,69 @@
+package com.tedtalks.benchmark;
+
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.service.TedTalksService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the fixed-point fast path of {@link TedTalksService#calculateInfluenceScore} with the
+ * {@code BigDecimal} implementation it replaced. Run with {@code -prof gc} to compare allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InfluenceScoreBenchmark {
+    private static final int TALKS = 1024;
+
+    private final BigDecimal viewsWeight = new BigDecimal("0.4");
+    private final BigDecimal likesWeight = new BigDecimal("0.4");
+    private final BigDecimal engagementWeight = new BigDecimal("0.1");
+    private final BigDecimal growthWeight = new BigDecimal("0.1");
+
+    private TedTalksService tedTalksService;
+    private TedTalk[] talks;
+
+    @Setup
+    public void setUp() {
+        tedTalksService = new TedTalksService(null, null, null, null, null, 1000);
+        talks = new TedTalk[TALKS];
+        for (int i = 0; i < TALKS; i++) {
+            talks[i] = TedTalk.builder()
+                    .views(BigInteger.valueOf(1_000L + (i * 7919L) % 50_000_000L))
+                    .likes(BigInteger.valueOf(10L + (i * 104729L) % 1_000_000L))
+                    .date(LocalDate.of(1990 + i % 34, 1 + i % 12, 1))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TALKS)
+    public void fixedPoint(Blackhole blackhole) {
+        for (TedTalk talk : talks) {
+            blackhole.consume(tedTalksService.calculateInfluenceScore(talk, viewsWeight, likesWeight, engagementWeight, growthWeight));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TALKS)
+    public void exactBigDecimal(Blackhole blackhole) {
+        for (TedTalk talk : talks) {
+            blackhole.consume(tedTalksService.calculateInfluenceScoreExact(talk, viewsWeight, likesWeight, engagementWeight, growthWeight));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InfluenceScoreBenchmark.class.getSimpleName()).build()).run();
+    }
+}
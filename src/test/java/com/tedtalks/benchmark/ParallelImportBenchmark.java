@@ -0,0 +1,73 @@
+package com.tedtalks.benchmark;
+
+import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.service.CsvImportService;
+import com.tedtalks.service.ImportProgress;
+import com.tedtalks.service.TedTalksService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Scaling of {@link CsvImportService#processCsv} with the number of parse threads.
+ * The repository is stubbed and written chunks are discarded, so only parsing and validation are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ParallelImportBenchmark {
+    private static final int ROWS = 200_000;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private byte[] csv;
+    private ExecutorService executor;
+    private CsvImportService csvImportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        csv = SyntheticTalks.csv(ROWS).getBytes(StandardCharsets.UTF_8);
+        TedTalksRepository tedTalksRepository = mock(TedTalksRepository.class);
+        when(tedTalksRepository.findExistingLinks(anyCollection())).thenReturn(Set.of());
+        executor = Executors.newFixedThreadPool(threads);
+        csvImportService = new CsvImportService(tedTalksRepository, new TedTalksService(tedTalksRepository, null, null, null, null, 1000), null,
+                1000, executor, threads, event -> { }, new SimpleMeterRegistry(), 1000, DataSize.ofGigabytes(2), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int processCsv(Blackhole blackhole) throws IOException {
+        return csvImportService.processCsv(new ByteArrayInputStream(csv), new ArrayList<>(), new ImportProgress(),
+                blackhole::consume);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParallelImportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
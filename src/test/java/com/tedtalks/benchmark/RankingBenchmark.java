@@ -0,0 +1,78 @@
+package com.tedtalks.benchmark;
+
+import com.tedtalks.analytics.ScoreWeights;
+import com.tedtalks.analytics.SnapshotStorage;
+import com.tedtalks.analytics.TalkColumnStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking queries behind /most-influential, /most-influential/{year} and /tedTalksWithInfluenceScore,
+ * run against a {@link TalkColumnStore} loaded from a synthetic H2 table of {@code talks} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RankingBenchmark {
+    private static final ScoreWeights DEFAULT_WEIGHTS = ScoreWeights.DEFAULT;
+
+    @Param({"10000"})
+    private int talks;
+
+    private DriverManagerDataSource dataSource;
+    private TalkColumnStore talkColumnStore;
+    private int yearStart;
+    private int yearEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:ranking;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE ted_talks (id BIGINT AUTO_INCREMENT PRIMARY KEY, title VARCHAR(255),"
+                + " author VARCHAR(255), views NUMERIC(38, 0), likes NUMERIC(38, 0), date DATE, link VARCHAR(255),"
+                + " content_hash BIGINT)");
+        jdbcTemplate.update("INSERT INTO ted_talks (title, author, views, likes, date, link)"
+                + " SELECT 'Talk ' || X, 'Author ' || MOD(X, 5000), 1000 + MOD(X * 7919, 50000000), 10 + MOD(X * 104729, 1000000),"
+                + " DATEADD(MONTH, -MOD(X, 400), DATE '2025-01-01'), 'https://ted.com/talks/synthetic_' || X"
+                + " FROM SYSTEM_RANGE(1, ?)", talks);
+        talkColumnStore = new TalkColumnStore(jdbcTemplate, new SnapshotStorage(jdbcTemplate, ""));
+        talkColumnStore.rebuild();
+        yearStart = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+        yearEnd = (int) LocalDate.of(2015, 12, 31).toEpochDay();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    @Benchmark
+    public OptionalLong mostInfluential() {
+        return talkColumnStore.findMostInfluential(DEFAULT_WEIGHTS, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public OptionalLong mostInfluentialPerYear() {
+        return talkColumnStore.findMostInfluential(DEFAULT_WEIGHTS, yearStart, yearEnd);
+    }
+
+    @Benchmark
+    public long[] top100ByInfluence() {
+        return talkColumnStore.topByInfluence(DEFAULT_WEIGHTS, 100);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RankingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
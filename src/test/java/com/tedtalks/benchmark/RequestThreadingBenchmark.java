@@ -0,0 +1,116 @@
+package com.tedtalks.benchmark;
+
+import com.tedtalks.TedtalksApplication;
+import com.tedtalks.service.CsvImportService;
+import com.tedtalks.service.ImportProgress;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles of blocking JPA endpoints over HTTP, with Tomcat's platform thread pool
+ * against the virtual-threads profile. Both variants share the same Hikari pool, so the comparison shows how each
+ * behaves when there are more concurrent callers than connections.
+ *
+ * JMH threads are the concurrent clients. Compare at several concurrency levels with {@code -t}, e.g.
+ * {@code -Djmh.params="-t 50"}, {@code "-t 200"} and {@code "-t 1000"}; the SampleTime results include p0.99.
+ * The virtual variant needs Java 21, so run with {@code -Pbenchmark,virtual-threads}.
+ * Requests rejected with 503 because no connection was free are counted as {@code rejected}, not as throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(200)
+@Fork(1)
+public class RequestThreadingBenchmark {
+    private static final int TALKS = 50_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"platform", "virtual"})
+    private String threading;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        boolean virtual = "virtual".equals(threading);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21, run with -Pbenchmark,virtual-threads");
+        }
+        context = new SpringApplicationBuilder(TedtalksApplication.class)
+                .profiles(virtual ? new String[]{"virtual-threads"} : new String[0])
+                .run("--server.port=0", "--logging.level.root=WARN",
+                        "--spring.datasource.hikari.maximum-pool-size=10",
+                        "--spring.datasource.hikari.connection-timeout=2000");
+        byte[] csv = SyntheticTalks.csv(TALKS).getBytes(StandardCharsets.UTF_8);
+        context.getBean(CsvImportService.class).importCsv(new ByteArrayInputStream(csv), new ImportProgress());
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/tedtalks";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        context.close();
+    }
+
+    /**
+     * Failed requests per client thread, reported next to the throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rejected = 0;
+        }
+    }
+
+    /**
+     * Paged and sorted query plus a count, the dashboard's main call.
+     */
+    @Benchmark
+    public int page(Outcomes outcomes) throws IOException, InterruptedException {
+        int page = ThreadLocalRandom.current().nextInt(TALKS / PAGE_SIZE);
+        return get(baseUrl + "?page=" + page + "&size=" + PAGE_SIZE + "&sort=views,desc", outcomes);
+    }
+
+    @Benchmark
+    public int talksByAuthor(Outcomes outcomes) throws IOException, InterruptedException {
+        int author = ThreadLocalRandom.current().nextInt(5_000);
+        return get(baseUrl + "/author/Author%20" + author, outcomes);
+    }
+
+    private int get(String url, Outcomes outcomes) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            outcomes.rejected++;
+        }
+        return response.body().length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RequestThreadingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
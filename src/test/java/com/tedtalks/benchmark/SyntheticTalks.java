@@ -0,0 +1,31 @@
+package com.tedtalks.benchmark;
+
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * Deterministic synthetic TED Talk data for benchmarks.
+ */
+final class SyntheticTalks {
+
+    private SyntheticTalks() {
+    }
+
+    /**
+     * A CSV in the import format with the given number of valid, distinct rows.
+     */
+    static String csv(int rows) {
+        StringBuilder csv = new StringBuilder(rows * 96).append("title,author,date,views,likes,link\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Talk number ").append(i).append(',')
+                    .append("Author ").append(i % 5_000).append(',')
+                    .append(Month.of(1 + i % 12).getDisplayName(TextStyle.FULL, Locale.ENGLISH)).append(' ')
+                    .append(1990 + i % 34).append(',')
+                    .append(1_000L + (i * 7919L) % 50_000_000L).append(',')
+                    .append(10L + (i * 104729L) % 1_000_000L).append(',')
+                    .append("https://ted.com/talks/synthetic_").append(i).append('\n');
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.tedtalks.benchmark;
+
+import com.tedtalks.analytics.SnapshotStorage;
+import com.tedtalks.analytics.TalkColumnStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup cost of the {@link TalkColumnStore}: reading the whole catalog over JDBC against restoring it from the
+ * memory-mapped snapshot, which also checks the file's checksum and the database fingerprint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WarmStartBenchmark {
+
+    @Param({"100000"})
+    private int talks;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SnapshotStorage snapshotStorage;
+    private Path snapshotDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:warmstart;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE ted_talks (id BIGINT AUTO_INCREMENT PRIMARY KEY, title VARCHAR(255),"
+                + " author VARCHAR(255), views NUMERIC(38, 0), likes NUMERIC(38, 0), date DATE, link VARCHAR(255),"
+                + " content_hash BIGINT)");
+        jdbcTemplate.update("INSERT INTO ted_talks (title, author, views, likes, date, link, content_hash)"
+                + " SELECT 'Talk ' || X, 'Author ' || MOD(X, 5000), 1000 + MOD(X * 7919, 50000000), 10 + MOD(X * 104729, 1000000),"
+                + " DATEADD(MONTH, -MOD(X, 400), DATE '2025-01-01'), 'https://ted.com/talks/synthetic_' || X, X * 2654435761"
+                + " FROM SYSTEM_RANGE(1, ?)", talks);
+        snapshotDir = Files.createTempDirectory("warmstart");
+        snapshotStorage = new SnapshotStorage(jdbcTemplate, snapshotDir.toString());
+        new TalkColumnStore(jdbcTemplate, snapshotStorage).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        try (Stream<Path> files = Files.walk(snapshotDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public TalkColumnStore fullLoad() {
+        TalkColumnStore store = new TalkColumnStore(jdbcTemplate, new SnapshotStorage(jdbcTemplate, ""));
+        store.rebuild();
+        return store;
+    }
+
+    @Benchmark
+    public TalkColumnStore restoreSnapshot() {
+        TalkColumnStore store = new TalkColumnStore(jdbcTemplate, snapshotStorage);
+        store.load();
+        return store;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WarmStartBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,20 +1,46 @@
 package com.tedtalks.controller;
 
+import com.tedtalks.analytics.AuthorStats;
 import com.tedtalks.entity.TedTalk;
+import com.tedtalks.exception.AlreadyImportedException;
+import com.tedtalks.exception.GlobalExceptionHandler;
+import com.tedtalks.exception.ImportInProgressException;
+import com.tedtalks.exception.PayloadTooLargeException;
 import com.tedtalks.service.CsvImportService;
+import com.tedtalks.service.ImportJob;
+import com.tedtalks.service.ImportJobService;
+import com.tedtalks.service.ImportMode;
+import com.tedtalks.service.ImportProgress;
+import com.tedtalks.service.TalkExportService;
+import com.tedtalks.service.TalkWindow;
 import com.tedtalks.service.TedTalksService;
+import com.tedtalks.service.YearSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,13 +50,19 @@ class TedTalkControllerTest {
     private MockMvc mockMvc;
     private TedTalksService tedTalksService;
     private CsvImportService csvImportService;
+    private ImportJobService importJobService;
+    private TalkExportService talkExportService;
 
     @BeforeEach
     void setUp() {
         tedTalksService = mock(TedTalksService.class);
         csvImportService = mock(CsvImportService.class);
-        TedTalkController tedTalkController = new TedTalkController(csvImportService, tedTalksService);
-        mockMvc = MockMvcBuilders.standaloneSetup(tedTalkController).build();
+        importJobService = mock(ImportJobService.class);
+        talkExportService = mock(TalkExportService.class);
+        TedTalkController tedTalkController = new TedTalkController(csvImportService, tedTalksService, importJobService, talkExportService);
+        mockMvc = MockMvcBuilders.standaloneSetup(tedTalkController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
     }
 
     // Test : Import CSV File :Happy Case
@@ -44,13 +76,120 @@ class TedTalkControllerTest {
                 .andExpect(jsonPath("$.message").value("CSV file imported successfully"));
     }
 
+    // Test : Upsert import reports inserted, updated and unchanged rows
+    @Test
+    void testImportCsv_Upsert() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", "title,author,views,likes,date,link\nAI Future,John Doe,1000000,50000,January 2022,https://ted.com/ai_future".getBytes());
+        when(csvImportService.importCsv(any(MockMultipartFile.class), any(ImportProgress.class), eq(ImportMode.UPSERT))).thenReturn(3);
+
+        mockMvc.perform(multipart("/tedtalks/import").file(file).param("mode", "upsert"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value("3"))
+                .andExpect(jsonPath("$.updated").value("0"))
+                .andExpect(jsonPath("$.unchanged").value("0"));
+        verify(csvImportService, never()).importCsv(any(MockMultipartFile.class));
+    }
+
+    // Test : Unknown import mode
+    @Test
+    void testImportCsv_InvalidMode() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv", "text/csv", "title".getBytes());
+
+        mockMvc.perform(multipart("/tedtalks/import").file(file).param("mode", "replace"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(csvImportService);
+    }
+
+    // Test : Import a raw gzip-encoded CSV body
+    @Test
+    void testImportCsvBody_Gzip() throws Exception {
+        byte[] body = "gzip bytes".getBytes(StandardCharsets.UTF_8);
+        when(csvImportService.importCsvBody(any(InputStream.class), eq((long) body.length), eq(true), any(ImportProgress.class),
+                eq(ImportMode.INSERT))).thenReturn(1);
+
+        mockMvc.perform(post("/tedtalks/import").contentType("text/csv").header(HttpHeaders.CONTENT_ENCODING, "gzip").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("CSV file imported successfully"));
+        verify(csvImportService, never()).importCsv(any(MockMultipartFile.class));
+    }
+
+    // Test : Raw CSV body over the size limit
+    @Test
+    void testImportCsvBody_TooLarge() throws Exception {
+        when(csvImportService.importCsvBody(any(InputStream.class), anyLong(), anyBoolean(), any(ImportProgress.class), any()))
+                .thenThrow(new PayloadTooLargeException(100));
+
+        mockMvc.perform(post("/tedtalks/import").contentType("text/csv").content("title,author"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.message").value("CSV upload exceeds the limit of 100 bytes"));
+    }
+
+    // Test : A retried upload of an imported file succeeds without importing it again
+    @Test
+    void testImportCsv_AlreadyImported() throws Exception {
+        when(csvImportService.importCsvBody(any(InputStream.class), anyLong(), anyBoolean(), any(ImportProgress.class), any()))
+                .thenThrow(new AlreadyImportedException(Instant.parse("2026-01-05T10:15:30Z")));
+
+        mockMvc.perform(post("/tedtalks/import").contentType("text/csv").content("title,author"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("CSV file was already imported"))
+                .andExpect(jsonPath("$.importedAt").value("2026-01-05T10:15:30Z"));
+    }
+
+    // Test : Another node kept the import lease past the wait
+    @Test
+    void testImportCsv_ImportInProgress() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", "title,author,views,likes,date,link\nAI Future,John Doe,1000000,50000,January 2022,https://ted.com/ai_future".getBytes());
+        when(csvImportService.importCsv(any(MultipartFile.class))).thenThrow(new ImportInProgressException());
+
+        mockMvc.perform(multipart("/tedtalks/import").file(file))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.message").value("Another import is in progress, retry later"));
+    }
+
+    // Test : Unsupported Content-Encoding on a raw CSV body
+    @Test
+    void testImportCsvBody_UnsupportedEncoding() throws Exception {
+        mockMvc.perform(post("/tedtalks/import").contentType("text/csv").header(HttpHeaders.CONTENT_ENCODING, "br").content("x"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(csvImportService);
+    }
+
+    // Test : Import CSV File asynchronously
+    @Test
+    void testImportCsv_Async() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", "title,author,views,likes,date,link\nAI Future,John Doe,1000000,50000,January 2022,https://ted.com/ai_future".getBytes());
+        ImportJob job = mock(ImportJob.class);
+        when(job.getId()).thenReturn("job-1");
+        when(job.getStatus()).thenReturn(ImportJob.Status.QUEUED);
+        when(importJobService.submit(any(), any())).thenReturn(job);
+
+        mockMvc.perform(multipart("/tedtalks/import").file(file).param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"));
+        verifyNoInteractions(csvImportService);
+    }
+
+    // Test : Unknown import job
+    @Test
+    void testGetImportJob_NotFound() throws Exception {
+        when(importJobService.getJob("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/tedtalks/import/missing"))
+                .andExpect(status().isNotFound());
+    }
+
     // Test : Get TED Talks by Author
     @Test
     void testGetTedTalksByAuthor() throws Exception {
         when(tedTalksService.getTedTalksByAuthor("John Doe"))
-                .thenReturn(List.of(new TedTalk(1L, "AI Revolution", "John Doe",
-                        BigInteger.valueOf(5000000), BigInteger.valueOf(200000),
-                        LocalDate.of(2021, 5, 20), "https://ted.com/ai_revolution", null)));
+                .thenReturn(List.of(TedTalk.builder().id(1L).title("AI Revolution").author("John Doe")
+                        .views(BigInteger.valueOf(5000000)).likes(BigInteger.valueOf(200000))
+                        .date(LocalDate.of(2021, 5, 20)).link("https://ted.com/ai_revolution").build()));
 
         mockMvc.perform(get("/tedtalks/author/John Doe"))
                 .andExpect(status().isOk())
@@ -58,13 +197,25 @@ class TedTalkControllerTest {
                 .andExpect(jsonPath("$[0].author").value("John Doe"));
     }
 
+    // Test : No pooled connection within the Hikari timeout is answered with 503
+    @Test
+    void testGetTedTalksByAuthor_ConnectionPoolExhausted() throws Exception {
+        when(tedTalksService.getTedTalksByAuthor("John Doe"))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out after 2000ms"));
+
+        mockMvc.perform(get("/tedtalks/author/John Doe"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Database is busy, retry later"));
+    }
+
     // Test : Get TED Talks by Year
     @Test
     void testGetTedTalksByYear() throws Exception {
         when(tedTalksService.getTedTalksTalkPerYear(2022))
-                .thenReturn(List.of(new TedTalk(1L, "AI in 2022", "Jane Doe",
-                        BigInteger.valueOf(3000000), BigInteger.valueOf(100000),
-                        LocalDate.of(2022, 6, 15), "https://ted.com/ai_2022", null)));
+                .thenReturn(List.of(TedTalk.builder().id(1L).title("AI in 2022").author("Jane Doe")
+                        .views(BigInteger.valueOf(3000000)).likes(BigInteger.valueOf(100000))
+                        .date(LocalDate.of(2022, 6, 15)).link("https://ted.com/ai_2022").build()));
 
         mockMvc.perform(get("/tedtalks/year/2022"))
                 .andExpect(status().isOk())
@@ -78,9 +229,9 @@ class TedTalkControllerTest {
     @Test
     void testGetMostInfluentialSpeaker() throws Exception {
         when(tedTalksService.getMostInfluentialSpeaker(any(), any(), any(), any()))
-                .thenReturn(Optional.of(new TedTalk(1L, "AI Leadership", "Jane Doe",
-                        BigInteger.valueOf(2000000), BigInteger.valueOf(50000),
-                        LocalDate.of(2022, 8, 10), "https://ted.com/ai_leadership", null)));
+                .thenReturn(Optional.of(TedTalk.builder().id(1L).title("AI Leadership").author("Jane Doe")
+                        .views(BigInteger.valueOf(2000000)).likes(BigInteger.valueOf(50000))
+                        .date(LocalDate.of(2022, 8, 10)).link("https://ted.com/ai_leadership").build()));
 
         mockMvc.perform(get("/tedtalks/most-influential")
                         .param("viewsWeight", "0.4")
@@ -92,13 +243,30 @@ class TedTalkControllerTest {
                 .andExpect(jsonPath("$.author").value("Jane Doe"));
     }
 
+    // Test : Get a page of TED Talks ranked by influence score
+    @Test
+    void testGetAllTedTalksWithInfluenceScore_Paged() throws Exception {
+        when(tedTalksService.getAllTedTalksWithInfluenceScore(any(), any(), any(), any(), eq(2), eq(5)))
+                .thenReturn(List.of(TedTalk.builder().id(11L).title("AI Ethics").author("Jane Doe")
+                        .views(BigInteger.valueOf(1000000)).likes(BigInteger.valueOf(30000))
+                        .date(LocalDate.of(2020, 3, 1)).link("https://ted.com/ai_ethics").build()));
+
+        mockMvc.perform(get("/tedtalks/tedTalksWithInfluenceScore")
+                        .param("page", "2")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].title").value("AI Ethics"));
+    }
+
     // Test: Get Most Influential TED Talk for a Year
     @Test
     void testGetMostInfluentialPerYear() throws Exception {
         when(tedTalksService.getMostInfluentialTalkPerYear(eq(2022), any(), any(), any(), any()))
-                .thenReturn(Optional.of(new TedTalk(1L, "AI Breakthrough 2022", "Mark Smith",
-                        BigInteger.valueOf(3000000), BigInteger.valueOf(200000),
-                        LocalDate.of(2022, 7, 1), "https://ted.com/ai_2022_breakthrough", null)));
+                .thenReturn(Optional.of(TedTalk.builder().id(1L).title("AI Breakthrough 2022").author("Mark Smith")
+                        .views(BigInteger.valueOf(3000000)).likes(BigInteger.valueOf(200000))
+                        .date(LocalDate.of(2022, 7, 1)).link("https://ted.com/ai_2022_breakthrough")
+                        .contentHash(42L).build()));
 
         mockMvc.perform(get("/tedtalks/most-influential/2022")
                         .param("viewsWeight", "0.4")
@@ -106,6 +274,106 @@ class TedTalkControllerTest {
                         .param("engagementWeight", "0.1")
                         .param("growthWeight", "0.1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.title").value("AI Breakthrough 2022"));
+                .andExpect(jsonPath("$.title").value("AI Breakthrough 2022"))
+                .andExpect(jsonPath("$.contentHash").doesNotExist());
+    }
+
+    // Test: Get the per-year summary
+    @Test
+    void testGetYearSummaries() throws Exception {
+        TedTalk talk = TedTalk.builder().id(1L).title("AI Breakthrough 2022").author("Mark Smith")
+                .views(BigInteger.valueOf(3000000)).likes(BigInteger.valueOf(200000))
+                .date(LocalDate.of(2022, 7, 1)).link("https://ted.com/ai_2022_breakthrough").build();
+        when(tedTalksService.getYearSummaries())
+                .thenReturn(List.of(new YearSummary(2022, 1, talk.getViews(), talk.getLikes(), talk, talk, talk)));
+
+        mockMvc.perform(get("/tedtalks/stats/years"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].year").value(2022))
+                .andExpect(jsonPath("$[0].talkCount").value(1))
+                .andExpect(jsonPath("$[0].mostInfluential.title").value("AI Breakthrough 2022"));
+    }
+
+    // Test: Keyset pagination returns the continuation cursor
+    @Test
+    void testScrollTedTalks() throws Exception {
+        when(tedTalksService.scrollTedTalks("abc", 5, "views,desc"))
+                .thenReturn(new TalkWindow(List.of(TedTalk.builder().id(1L).title("AI Breakthrough 2022").build()), true, "next"));
+
+        mockMvc.perform(get("/tedtalks")
+                        .param("paging", "keyset")
+                        .param("cursor", "abc")
+                        .param("size", "5")
+                        .param("sort", "views,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("AI Breakthrough 2022"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    // Test: Slice mode skips the total count
+    @Test
+    void testGetTedTalksSlice() throws Exception {
+        when(tedTalksService.getTedTalksSlice(0, 10, "likes,desc"))
+                .thenReturn(new SliceImpl<>(List.of(TedTalk.builder().id(1L).title("AI Breakthrough 2022").build()),
+                        PageRequest.of(0, 10), false));
+
+        mockMvc.perform(get("/tedtalks").param("paging", "slice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("AI Breakthrough 2022"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        verify(tedTalksService, never()).getAllTedTalks(anyInt(), anyInt(), any());
+    }
+
+    // Test: Export streams the catalog, gzip-compressed on request
+    @Test
+    void testExportTalks_Gzip() throws Exception {
+        when(talkExportService.export(eq(TalkExportService.Format.CSV), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("title\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/tedtalks/export").param("format", "csv").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("title\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    // Test: Unknown export format
+    @Test
+    void testExportTalks_InvalidFormat() throws Exception {
+        mockMvc.perform(get("/tedtalks/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Test: Top speakers
+    @Test
+    void testGetTopAuthors() throws Exception {
+        when(tedTalksService.getTopAuthors("views", 3))
+                .thenReturn(List.of(new AuthorStats("Mark Smith", 2, BigInteger.valueOf(6000000), BigInteger.valueOf(400000),
+                        new BigDecimal("3000000.00000"), new BigDecimal("200000.00000"), new BigDecimal("2560000.00000"))));
+
+        mockMvc.perform(get("/tedtalks/authors").param("sortBy", "views").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].author").value("Mark Smith"))
+                .andExpect(jsonPath("$[0].talkCount").value(2));
+    }
+
+    // Test: Full-text search
+    @Test
+    void testSearchTalks() throws Exception {
+        when(tedTalksService.searchTalks("ai", 20))
+                .thenReturn(List.of(TedTalk.builder().id(1L).title("AI Breakthrough 2022").author("Mark Smith").build()));
+
+        mockMvc.perform(get("/tedtalks/search").param("q", "ai"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("AI Breakthrough 2022"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.tedtalks.repository;
+
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.service.TedTalksService;
+import com.tedtalks.util.ContentHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import(TedTalkBatchWriter.class)
+class TedTalkBatchWriterTest {
+
+    @Autowired
+    private TedTalkBatchWriter tedTalkBatchWriter;
+
+    @Autowired
+    private TedTalksRepository tedTalksRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testInsertAll() {
+        tedTalkBatchWriter.insertAll(List.of(
+                TedTalk.builder().title("AI Future").author("John Doe")
+                        .views(BigInteger.valueOf(1000000)).likes(BigInteger.valueOf(50000))
+                        .date(LocalDate.of(2022, 1, 1)).link("https://ted.com/ai_future").build(),
+                TedTalk.builder().title("Climate Change Solutions").author("Jane Smith")
+                        .views(new BigInteger("72000000")).likes(new BigInteger("2100000"))
+                        .date(LocalDate.of(2006, 2, 1)).link("https://ted.com/climate").build()));
+
+        List<TedTalk> talks = tedTalksRepository.findByAuthor("Jane Smith");
+        assertEquals(2, tedTalksRepository.count());
+        assertEquals(new BigInteger("72000000"), talks.get(0).getViews());
+        assertEquals(LocalDate.of(2006, 2, 1), talks.get(0).getDate());
+    }
+
+    // Existing links get the new counts and keep their id and title, new links are inserted
+    @Test
+    void testMergeAll() {
+        tedTalkBatchWriter.insertAll(List.of(
+                TedTalk.builder().title("AI Future").author("John Doe")
+                        .views(BigInteger.valueOf(1000000)).likes(BigInteger.valueOf(50000))
+                        .date(LocalDate.of(2022, 1, 1)).link("https://ted.com/ai_future").build()));
+        Long id = tedTalksRepository.findByAuthor("John Doe").get(0).getId();
+
+        tedTalkBatchWriter.mergeAll(List.of(
+                TedTalk.builder().title("Renamed").author("John Doe")
+                        .views(BigInteger.valueOf(1200000)).likes(BigInteger.valueOf(55000))
+                        .date(LocalDate.of(2022, 1, 1)).link("https://ted.com/ai_future").build(),
+                TedTalk.builder().title("Climate Change Solutions").author("Jane Smith")
+                        .views(new BigInteger("72000000")).likes(new BigInteger("2100000"))
+                        .date(LocalDate.of(2006, 2, 1)).link("https://ted.com/climate").build()));
+
+        entityManager.clear();
+        TedTalk updated = tedTalksRepository.findById(id).orElseThrow();
+        assertEquals(2, tedTalksRepository.count());
+        assertEquals("AI Future", updated.getTitle());
+        assertEquals(BigInteger.valueOf(1200000), updated.getViews());
+        assertEquals(BigInteger.valueOf(55000), updated.getLikes());
+        assertEquals(ContentHash.of(BigInteger.valueOf(1200000), BigInteger.valueOf(55000)), updated.getContentHash());
+        assertEquals(2006, tedTalksRepository.findByAuthor("Jane Smith").get(0).getYear());
+    }
+
+    // The SQL refresh stores the same rounded rates as the Java calculation, and a second run changes nothing
+    @Test
+    void testRefreshScoreComponents() {
+        LocalDate today = LocalDate.now();
+        List<TedTalk> talks = List.of(
+                talk("https://ted.com/no_views", 0, 0, LocalDate.of(2020, 5, 17)),
+                talk("https://ted.com/no_likes", 1000, 0, LocalDate.of(2020, 5, 17)),
+                talk("https://ted.com/half_up", 200000, 1, today.minusMonths(3).withDayOfMonth(1)),
+                talk("https://ted.com/day_later", 7777777, 3333, today.minusMonths(14).withDayOfMonth(28)),
+                talk("https://ted.com/this_month", 12345, 678, today.withDayOfMonth(1)),
+                talk("https://ted.com/huge", new BigInteger("123456789012345678901234567"), new BigInteger("98765432109876543"),
+                        LocalDate.of(2006, 2, 1)));
+        tedTalkBatchWriter.insertAll(talks);
+        TedTalksService tedTalksService = new TedTalksService(null, null, null, null, null, 1000);
+
+        assertEquals(talks.size(), tedTalkBatchWriter.refreshScoreComponents(today));
+
+        entityManager.clear();
+        for (TedTalk expected : talks) {
+            tedTalksService.applyScoreComponents(expected);
+            TedTalk stored = tedTalksRepository.findAll().stream()
+                    .filter(talk -> talk.getLink().equals(expected.getLink())).findFirst().orElseThrow();
+            assertEquals(0, expected.getEngagementRate().compareTo(stored.getEngagementRate()), expected.getLink());
+            assertEquals(0, expected.getGrowthRate().compareTo(stored.getGrowthRate()), expected.getLink());
+        }
+        assertEquals(0, tedTalkBatchWriter.refreshScoreComponents(today));
+    }
+
+    private TedTalk talk(String link, long views, long likes, LocalDate date) {
+        return talk(link, BigInteger.valueOf(views), BigInteger.valueOf(likes), date);
+    }
+
+    private TedTalk talk(String link, BigInteger views, BigInteger likes, LocalDate date) {
+        return TedTalk.builder().title("Talk").author("John Doe").views(views).likes(likes).date(date).link(link).build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.tedtalks.repository;
+
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.exception.BadRequestException;
+import com.tedtalks.service.TalkWindow;
+import com.tedtalks.service.TedTalksService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class TedTalksRepositoryTest {
+    private static final BigDecimal VIEWS_WEIGHT = new BigDecimal("0.4");
+    private static final BigDecimal LIKES_WEIGHT = new BigDecimal("0.4");
+    private static final BigDecimal ENGAGEMENT_WEIGHT = new BigDecimal("0.1");
+    private static final BigDecimal GROWTH_WEIGHT = new BigDecimal("0.1");
+
+    @Autowired
+    private TedTalksRepository tedTalksRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TedTalksService tedTalksService = new TedTalksService(null, null, null, null, null, 1000);
+
+    @BeforeEach
+    void setUp() {
+        tedTalksRepository.saveAll(List.of(
+                talk("Small", 1_000, 10, LocalDate.of(2020, 1, 1)),
+                talk("Liked", 2_000, 1_900, LocalDate.of(2021, 3, 1)),
+                talk("Viewed", 5_000, 100, LocalDate.of(2021, 6, 1))));
+    }
+
+    @Test
+    void testFindAllOrderByInfluenceScore() {
+        List<TedTalk> ranked = tedTalksRepository.findAllOrderByInfluenceScore(
+                VIEWS_WEIGHT, LIKES_WEIGHT, ENGAGEMENT_WEIGHT, GROWTH_WEIGHT, PageRequest.of(0, 3));
+
+        assertEquals(List.of("Viewed", "Liked", "Small"), ranked.stream().map(TedTalk::getTitle).toList());
+    }
+
+    @Test
+    void testFindByYearOrderByInfluenceScore() {
+        List<TedTalk> ranked = tedTalksRepository.findByYearOrderByInfluenceScore(
+                2020, VIEWS_WEIGHT, LIKES_WEIGHT, ENGAGEMENT_WEIGHT, GROWTH_WEIGHT, PageRequest.of(0, 1));
+
+        assertEquals("Small", ranked.get(0).getTitle());
+    }
+
+    @Test
+    void testFindByYear() {
+        List<TedTalk> talks = tedTalksRepository.findByYear(2021);
+
+        assertEquals(List.of("Liked", "Viewed"), talks.stream().map(TedTalk::getTitle).sorted().toList());
+        assertEquals(2021, talks.get(0).getYear());
+    }
+
+    @Test
+    void testScrollTedTalks_VisitsEveryTalkOnceInSortOrder() {
+        tedTalksRepository.save(talk("Tied", 2_000, 50, LocalDate.of(2019, 1, 1)));
+        TedTalksService service = new TedTalksService(tedTalksRepository, null, null, null, null, 1000);
+
+        List<String> titles = new ArrayList<>();
+        TalkWindow window = service.scrollTedTalks(null, 1, "views,desc");
+        titles.addAll(window.content().stream().map(TedTalk::getTitle).toList());
+        while (window.hasNext()) {
+            window = service.scrollTedTalks(window.nextCursor(), 1, "ignored");
+            titles.addAll(window.content().stream().map(TedTalk::getTitle).toList());
+        }
+
+        assertEquals(List.of("Viewed", "Tied", "Liked", "Small"), titles);
+        assertNull(window.nextCursor());
+    }
+
+    @Test
+    void testScrollTedTalks_RejectsInvalidCursorAndSort() {
+        TedTalksService service = new TedTalksService(tedTalksRepository, null, null, null, null, 1000);
+
+        assertThrows(BadRequestException.class, () -> service.scrollTedTalks("not-a-cursor", 10, "likes,desc"));
+        assertThrows(BadRequestException.class, () -> service.scrollTedTalks(null, 10, "link,desc"));
+    }
+
+    @Test
+    void testSummarizeByYear() {
+        List<Object[]> summary = tedTalksRepository.summarizeByYear();
+
+        assertEquals(2, summary.size());
+        assertEquals(2021, ((Number) summary.get(1)[0]).intValue());
+        assertEquals(2L, ((Number) summary.get(1)[1]).longValue());
+        assertEquals(BigInteger.valueOf(7_000), summary.get(1)[2]);
+        assertEquals(BigInteger.valueOf(2_000), summary.get(1)[3]);
+    }
+
+    @Test
+    void testSummarizeByAuthor() {
+        List<Object[]> summary = tedTalksRepository.summarizeByAuthor(VIEWS_WEIGHT, LIKES_WEIGHT, ENGAGEMENT_WEIGHT, GROWTH_WEIGHT);
+
+        assertEquals(3, summary.size());
+        Object[] small = summary.stream().filter(row -> "Author of Small".equals(row[0])).findFirst().orElseThrow();
+        assertEquals(1L, ((Number) small[1]).longValue());
+        assertEquals(BigInteger.valueOf(1_000), small[2]);
+        assertTrue(((BigDecimal) small[4]).compareTo(new BigDecimal("404")) > 0);
+    }
+
+    @Test
+    void testPerYearAndAuthorLookupsUseIndexes() {
+        assertPlanUses("SELECT * FROM ted_talks WHERE release_year = 2021", "IDX_TED_TALKS_RELEASE_YEAR");
+        assertPlanUses("SELECT * FROM ted_talks WHERE author = 'Author of Small'", "IDX_TED_TALKS_AUTHOR_ID");
+        assertPlanUses("SELECT * FROM ted_talks WHERE date BETWEEN DATE '2021-01-01' AND DATE '2021-12-31'", "IDX_TED_TALKS_DATE_ID");
+    }
+
+    @Test
+    void testTopByViewsAndLikesReadIndexInOrder() {
+        assertPlanUses("SELECT * FROM ted_talks ORDER BY views DESC FETCH FIRST 1 ROWS ONLY", "IDX_TED_TALKS_VIEWS_ID");
+        assertPlanUses("SELECT * FROM ted_talks ORDER BY likes DESC FETCH FIRST 1 ROWS ONLY", "IDX_TED_TALKS_LIKES_ID");
+    }
+
+    // Every keyset sort key seeks on its (key, id) index and reads the page in index order, in both directions
+    @Test
+    void testKeysetContinuationSeeksOnSortKeyIndex() {
+        Map<String, String> lastValues = Map.of("title", "'Liked'", "author", "'Author of Liked'", "views", "2000",
+                "likes", "1900", "date", "DATE '2021-03-01'");
+        lastValues.forEach((key, value) -> {
+            String index = "IDX_TED_TALKS_" + key.toUpperCase() + "_ID";
+            assertPlanUses("SELECT * FROM ted_talks WHERE " + key + " >= " + value + " AND (" + key + " > " + value
+                    + " OR id > 2) ORDER BY " + key + ", id FETCH FIRST 11 ROWS ONLY", index + ": " + key.toUpperCase() + " >=");
+            assertPlanUses("SELECT * FROM ted_talks WHERE " + key + " <= " + value + " AND (" + key + " < " + value
+                    + " OR id < 2) ORDER BY " + key + " DESC, id DESC FETCH FIRST 11 ROWS ONLY", index + ": " + key.toUpperCase() + " <=");
+        });
+        assertPlanUses("SELECT * FROM ted_talks WHERE id > 2 ORDER BY id FETCH FIRST 11 ROWS ONLY", "PRIMARY_KEY");
+    }
+
+    private void assertPlanUses(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in plan: " + plan);
+        if (sql.contains("ORDER BY")) {
+            assertTrue(plan.endsWith("/* index sorted */"), () -> "Expected the index to return rows in order: " + plan);
+        }
+    }
+
+    private TedTalk talk(String title, long views, long likes, LocalDate date) {
+        return tedTalksService.applyScoreComponents(TedTalk.builder()
+                .title(title)
+                .author("Author of " + title)
+                .views(BigInteger.valueOf(views))
+                .likes(BigInteger.valueOf(likes))
+                .date(date)
+                .link("https://ted.com/talks/" + title)
+                .build());
+    }
+}
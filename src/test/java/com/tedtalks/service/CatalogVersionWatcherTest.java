@@ -0,0 +1,53 @@
+package com.tedtalks.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogVersionWatcherTest {
+
+    private ImportCoordinator importCoordinator;
+    private List<Object> events;
+    private CatalogVersionWatcher catalogVersionWatcher;
+
+    @BeforeEach
+    void setUp() {
+        importCoordinator = mock(ImportCoordinator.class);
+        events = new ArrayList<>();
+        catalogVersionWatcher = new CatalogVersionWatcher(importCoordinator, events::add);
+        when(importCoordinator.catalogVersion()).thenReturn(new ImportCoordinator.CatalogVersion(4, 1));
+        catalogVersionWatcher.start();
+    }
+
+    // Imports made on this node were already applied and cause no refresh
+    @Test
+    void testPoll_IgnoresLocalImports() {
+        catalogVersionWatcher.onTalksImported(new TalksImportedEvent(10, 2, 5));
+        when(importCoordinator.catalogVersion()).thenReturn(new ImportCoordinator.CatalogVersion(5, 2));
+
+        assertFalse(catalogVersionWatcher.poll());
+        assertTrue(events.isEmpty());
+    }
+
+    // Imports made elsewhere are announced once, as a rebuild if any of them changed stored talks
+    @Test
+    void testPoll_RefreshesAfterImportsElsewhere() {
+        when(importCoordinator.catalogVersion()).thenReturn(new ImportCoordinator.CatalogVersion(6, 1));
+        assertTrue(catalogVersionWatcher.poll());
+        // A local import committed after another node's does not hide it
+        catalogVersionWatcher.onTalksImported(new TalksImportedEvent(3, 0, 8));
+        when(importCoordinator.catalogVersion()).thenReturn(new ImportCoordinator.CatalogVersion(8, 2));
+        assertTrue(catalogVersionWatcher.poll());
+        assertFalse(catalogVersionWatcher.poll());
+
+        assertEquals(List.of(new TalksImportedEvent(0, 0, 6), new TalksImportedEvent(0, 1, 8)), events);
+    }
+}
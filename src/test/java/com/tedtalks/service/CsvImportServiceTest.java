@@ -1,14 +1,42 @@
 package com.tedtalks.service;
 
 
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.exception.AlreadyImportedException;
 import com.tedtalks.exception.BadRequestException;
+import com.tedtalks.exception.PayloadTooLargeException;
+import com.tedtalks.repository.TedTalkBatchWriter;
 import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.util.ContentHash;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -19,11 +47,27 @@ class CsvImportServiceTest {
     private TedTalksRepository tedTalksRepository;
     @Mock
     private TedTalksService tedTalksService;
+    @Mock
+    private TedTalkBatchWriter tedTalkBatchWriter;
+    private SimpleMeterRegistry meterRegistry;
+    private ImportCoordinator importCoordinator;
+    @Captor
+    private ArgumentCaptor<List<TedTalk>> merged;
+    private AutoCloseable mocks;
 
     @BeforeEach
     void setUp() {
-        tedTalksRepository = mock(TedTalksRepository.class);
-        csvImportService = new CsvImportService(tedTalksRepository, tedTalksService);
+        mocks = MockitoAnnotations.openMocks(this);
+        importCoordinator = mock(ImportCoordinator.class);
+        when(importCoordinator.acquireLease()).thenReturn(mock(ImportCoordinator.Lease.class));
+        tedTalksService = new TedTalksService(tedTalksRepository, null, null, null, null, 1000);
+        meterRegistry = new SimpleMeterRegistry();
+        csvImportService = new CsvImportService(tedTalksRepository, tedTalksService, tedTalkBatchWriter, 2, Runnable::run, 1, event -> { }, meterRegistry, 1000, DataSize.ofGigabytes(2), importCoordinator);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
     }
 
     @Test
@@ -35,7 +79,294 @@ class CsvImportServiceTest {
 
         csvImportService.importCsv(file);
 
-        verify(tedTalksRepository, times(1)).saveAll(anyList());
+        verify(tedTalkBatchWriter, times(1)).insertAll(anyList());
+    }
+
+    // Rows are written in chunks while the file is streamed
+    @Test
+    void testImportCsv_WritesInChunks() throws IOException {
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                "AI in Finance,Jane Doe,2000000,60000,February 2022,https://ted.com/talks/ai_finance\n" +
+                "AI in Education,Mark Smith,3000000,70000,March 2022,https://ted.com/talks/ai_education";
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+        int imported = csvImportService.importCsv(file);
+
+        assertEquals(3, imported);
+        verify(tedTalkBatchWriter, times(2)).insertAll(anyList());
+    }
+
+    // A successful import is recorded under the SHA-256 of the file and announces the catalog version it committed
+    @Test
+    void testImportCsv_RecordsFileHash() throws IOException, NoSuchAlgorithmException {
+        List<TalksImportedEvent> events = new ArrayList<>();
+        CsvImportService recordingImportService = new CsvImportService(tedTalksRepository, tedTalksService,
+                tedTalkBatchWriter, 2, Runnable::run, 1, event -> events.add((TalksImportedEvent) event), meterRegistry,
+                1000, DataSize.ofGigabytes(2), importCoordinator);
+        byte[] csv = ("title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare").getBytes(StandardCharsets.UTF_8);
+        String fileHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(csv));
+        when(importCoordinator.recordImport(fileHash, ImportMode.INSERT, 1, 0, 0)).thenReturn(7L);
+
+        recordingImportService.importCsv(new ByteArrayInputStream(csv), new ImportProgress());
+
+        verify(importCoordinator).recordImport(fileHash, ImportMode.INSERT, 1, 0, 0);
+        assertEquals(List.of(new TalksImportedEvent(1, 0, 7)), events);
+    }
+
+    // Replaying an imported file answers with the earlier import instead of reporting every link as a duplicate
+    @Test
+    void testImportCsv_AlreadyImported() {
+        Instant importedAt = Instant.parse("2026-01-05T10:15:30Z");
+        when(importCoordinator.findRecentImport(anyString())).thenReturn(Optional.of(importedAt));
+        when(tedTalksRepository.findExistingLinks(anyList())).thenReturn(Set.of("https://ted.com/talks/ai_healthcare"));
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare";
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+        AlreadyImportedException exception = assertThrows(AlreadyImportedException.class, () -> csvImportService.importCsv(file));
+
+        assertEquals(importedAt, exception.getImportedAt());
+        verify(importCoordinator, never()).recordImport(anyString(), eq(ImportMode.INSERT), anyInt(), anyLong(), anyLong());
+    }
+
+    // A gzip-encoded request body is inflated while it is parsed
+    @Test
+    void testImportCsvBody_Gzip() throws IOException {
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                "AI in Finance,Jane Doe,2000000,60000,February 2022,https://ted.com/talks/ai_finance";
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            gzip.write(csvContent.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int imported = csvImportService.importCsvBody(new ByteArrayInputStream(body.toByteArray()), body.size(), true,
+                new ImportProgress(), ImportMode.INSERT);
+
+        assertEquals(2, imported);
+    }
+
+    // A gzip body cut short fails while rows are being read and is the client's error, not a server failure
+    @Test
+    void testImportCsvBody_RejectsTruncatedGzip() throws IOException {
+        StringBuilder csvContent = new StringBuilder("title,author,views,likes,date,link\n");
+        for (int i = 0; i < 2000; i++) {
+            csvContent.append("Talk ").append(i).append(",John Doe,1000,50,January 2022,https://ted.com/talks/talk_").append(i).append('\n');
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            gzip.write(csvContent.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] truncated = Arrays.copyOf(body.toByteArray(), body.size() / 2);
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> csvImportService.importCsvBody(
+                new ByteArrayInputStream(truncated), truncated.length, true, new ImportProgress(), ImportMode.INSERT));
+
+        assertEquals("Request body is not valid gzip", exception.getMessage());
+        verify(importCoordinator, never()).recordImport(anyString(), any(), anyInt(), anyLong(), anyLong());
+    }
+
+    // A body without a gzip header is rejected the same way as one damaged further in
+    @Test
+    void testImportCsvBody_RejectsBodyThatIsNotGzip() {
+        byte[] body = "title,author,views,likes,date,link\n".getBytes(StandardCharsets.UTF_8);
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> csvImportService.importCsvBody(
+                new ByteArrayInputStream(body), body.length, true, new ImportProgress(), ImportMode.INSERT));
+
+        assertEquals("Request body is not valid gzip", exception.getMessage());
+        verify(importCoordinator, never()).acquireLease();
+    }
+
+    // The limit is checked against the declared length first and against the bytes read when it is unknown
+    @Test
+    void testImportCsvBody_RejectsBodyOverLimit() {
+        CsvImportService limitedImportService = new CsvImportService(tedTalksRepository, tedTalksService,
+                tedTalkBatchWriter, 1, Runnable::run, 1, event -> { }, meterRegistry, 1000, DataSize.ofBytes(100), importCoordinator);
+        byte[] csv = ("title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                "AI in Finance,Jane Doe,2000000,60000,February 2022,https://ted.com/talks/ai_finance").getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(PayloadTooLargeException.class, () -> limitedImportService.importCsvBody(
+                new ByteArrayInputStream(csv), csv.length, false, new ImportProgress(), ImportMode.INSERT));
+        verifyNoInteractions(tedTalksRepository);
+        assertThrows(PayloadTooLargeException.class, () -> limitedImportService.importCsvBody(
+                new ByteArrayInputStream(csv), -1, false, new ImportProgress(), ImportMode.INSERT));
+        verifyNoInteractions(tedTalkBatchWriter);
+    }
+
+    // Every invalid row is reported even after earlier chunks were written
+    @Test
+    void testImportCsv_ReportsAllErrorsAcrossChunks() {
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                "AI in Finance,Jane Doe,2000000,60000,February 2022,https://ted.com/talks/ai_finance\n" +
+                "AI in Education,Mark Smith,INVALID,70000,March 2022,https://ted.com/talks/ai_education\n" +
+                "AI in Law,Anna Lee,4000000,80000,InvalidDate,https://ted.com/talks/ai_law";
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> csvImportService.importCsv(file));
+
+        assertEquals(2, exception.getErrors().size());
+        assertEquals(4, exception.getErrors().get(0).get("row"));
+        assertEquals(5, exception.getErrors().get(1).get("row"));
+    }
+
+    // Phases, rows and error types are recorded per import
+    @Test
+    void testImportCsv_RecordsMetrics() throws IOException {
+        String validCsv = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                "AI in Finance,Jane Doe,2000000,60000,February 2022,https://ted.com/talks/ai_finance\n" +
+                "AI in Education,Mark Smith,3000000,70000,March 2022,https://ted.com/talks/ai_education";
+        csvImportService.importCsv(new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", validCsv.getBytes(StandardCharsets.UTF_8)));
+        String invalidCsv = "title,author,views,likes,date,link\n" +
+                "AI in Law,Anna Lee,INVALID,80000,March 2022,https://ted.com/talks/ai_law\n" +
+                "AI in Art,Ben Ray,1000,80000,InvalidDate,https://ted.com/talks/ai_art";
+        assertThrows(BadRequestException.class, () -> csvImportService.importCsv(new MockMultipartFile("file",
+                "tedtalks.csv", "text/csv", invalidCsv.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals(3, meterRegistry.get("tedtalks.import.rows").tag("result", "imported").counter().count());
+        assertEquals(2, meterRegistry.get("tedtalks.import.rows").tag("result", "rejected").counter().count());
+        assertEquals(1, meterRegistry.get("tedtalks.import.errors").tag("type", "invalid_number").counter().count());
+        assertEquals(1, meterRegistry.get("tedtalks.import.errors").tag("type", "invalid_date").counter().count());
+        assertEquals(1, meterRegistry.get("tedtalks.import").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("tedtalks.import").tag("outcome", "failed").timer().count());
+        assertEquals(2, meterRegistry.get("tedtalks.import.phase").tag("phase", "save").timer().count());
+        assertEquals(1, meterRegistry.get("tedtalks.import.throughput").summary().count());
+    }
+
+    // Upsert writes new and changed links through the merge path and skips rows whose counts are unchanged
+    @Test
+    void testImportCsv_Upsert_SkipsUnchangedRows() throws IOException {
+        when(tedTalksRepository.findContentHashes(anyList())).thenReturn(List.of(
+                new Object[]{"https://ted.com/talks/ai_healthcare", ContentHash.of(BigInteger.valueOf(1000000), BigInteger.valueOf(50000))},
+                new Object[]{"https://ted.com/talks/ai_finance", ContentHash.of(BigInteger.valueOf(1500000), BigInteger.valueOf(60000))}));
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                "AI in Finance,Jane Doe,2000000,60000,February 2022,https://ted.com/talks/ai_finance\n" +
+                "AI in Education,Mark Smith,3000000,70000,March 2022,https://ted.com/talks/ai_education";
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+        ImportProgress progress = new ImportProgress();
+
+        int written = csvImportService.importCsv(file, progress, ImportMode.UPSERT);
+
+        verify(tedTalkBatchWriter, atLeastOnce()).mergeAll(merged.capture());
+        verify(tedTalkBatchWriter, never()).insertAll(anyList());
+        verify(tedTalksRepository, never()).findExistingLinks(anyList());
+        assertEquals(List.of("https://ted.com/talks/ai_finance", "https://ted.com/talks/ai_education"),
+                merged.getAllValues().stream().flatMap(List::stream).map(TedTalk::getLink).toList());
+        assertEquals(2, written);
+        assertEquals(1, progress.getRowsUpdated());
+        assertEquals(1, progress.getRowsUnchanged());
+    }
+
+    // Chunks that write nothing still renew the lease, so a long run of unchanged rows cannot outlast it
+    @Test
+    void testImportCsv_RenewsLeaseForChunksWithoutWrites() throws IOException {
+        ImportCoordinator.Lease lease = mock(ImportCoordinator.Lease.class);
+        when(importCoordinator.acquireLease()).thenReturn(lease);
+        when(tedTalksRepository.findContentHashes(anyList())).thenAnswer(invocation -> {
+            List<String> links = invocation.getArgument(0);
+            return links.stream().map(link -> new Object[]{link, ContentHash.of(BigInteger.valueOf(1000), BigInteger.valueOf(50))}).toList();
+        });
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000,50,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                "AI in Finance,Jane Doe,1000,50,February 2022,https://ted.com/talks/ai_finance\n" +
+                "AI in Education,Mark Smith,1000,50,March 2022,https://ted.com/talks/ai_education";
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+        int written = csvImportService.importCsv(file, new ImportProgress(), ImportMode.UPSERT);
+
+        assertEquals(0, written);
+        verify(tedTalkBatchWriter, never()).mergeAll(anyList());
+        verify(lease, times(2)).renewIfDue();
+    }
+
+    // Upsert still rejects a link repeated within the file
+    @Test
+    void testImportCsv_Upsert_DuplicateLinkInFile() {
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI Revolution,Jane Doe,2000000,100000,February 2022,https://ted.com/ai_revolution\n" +
+                "AI Revolution,Jane Doe,2100000,100000,February 2022,https://ted.com/ai_revolution";
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> csvImportService.importCsv(file, new ImportProgress(), ImportMode.UPSERT));
+
+        assertEquals("Duplicate TED Talk link found in the same CSV file.", exception.getErrors().get(0).get("error"));
+        verify(tedTalkBatchWriter, never()).mergeAll(anyList());
+    }
+
+    // Errors beyond the cap are counted but not listed
+    @Test
+    void testImportCsv_CapsReportedErrors() {
+        CsvImportService cappedImportService = new CsvImportService(tedTalksRepository, tedTalksService,
+                tedTalkBatchWriter, 2, Runnable::run, 1, event -> { }, meterRegistry, 2, DataSize.ofGigabytes(2), importCoordinator);
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,-1,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                "AI in Finance,Jane Doe,2000000,x,February 2022,https://ted.com/talks/ai_finance\n" +
+                "AI in Education,Mark Smith,3000000,70000,Marc 2022,https://ted.com/talks/ai_education";
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> cappedImportService.importCsv(file));
+
+        assertEquals(List.of(2, 3), exception.getErrors().stream().map(error -> error.get("row")).toList());
+        assertEquals(3, exception.getErrorCount());
+        assertEquals(1, meterRegistry.get("tedtalks.import.errors").tag("type", "invalid_date").counter().count());
+    }
+
+    // Parallel parsing reports errors in file order, including duplicates that span chunks
+    @Test
+    void testImportCsv_Parallel_ReportsErrorsInFileOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CsvImportService parallelImportService = new CsvImportService(tedTalksRepository, tedTalksService,
+                    tedTalkBatchWriter, 1, executor, 4, event -> { }, new SimpleMeterRegistry(), 1000, DataSize.ofGigabytes(2), importCoordinator);
+            String csvContent = "title,author,views,likes,date,link\n" +
+                    "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                    "AI in Finance,Jane Doe,-5,60000,February 2022,https://ted.com/talks/ai_finance\n" +
+                    "AI in Education,,3000000,70000,March 2022,https://ted.com/talks/ai_education\n" +
+                    "AI in Healthcare,John Doe,INVALID,50000,January 2022,https://ted.com/talks/ai_healthcare\n" +
+                    "AI in Law,Anna Lee,4000000,80000,InvalidDate,https://ted.com/talks/ai_law";
+            MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                    "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+            BadRequestException exception = assertThrows(BadRequestException.class, () -> parallelImportService.importCsv(file));
+
+            List<Map<String, Object>> errors = exception.getErrors();
+            assertEquals(List.of(3, 4, 5, 6), errors.stream().map(error -> error.get("row")).toList());
+            assertEquals("Missing required fields.", errors.get(1).get("error"));
+            assertEquals("Duplicate TED Talk link found in the same CSV file.", errors.get(2).get("error"));
+            verify(tedTalkBatchWriter, times(1)).insertAll(anyList());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Link already stored in the database
+    @Test
+    void testImportCsv_ExistingLink_ShouldThrowBadRequestException() {
+        when(tedTalksRepository.findExistingLinks(anyList())).thenReturn(Set.of("https://ted.com/talks/ai_healthcare"));
+        String csvContent = "title,author,views,likes,date,link\n" +
+                "AI in Healthcare,John Doe,1000000,50000,January 2022,https://ted.com/talks/ai_healthcare";
+        MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv",
+                "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> csvImportService.importCsv(file));
+
+        assertEquals("Duplicate TED Talk link found.", exception.getErrors().get(0).get("error"));
+        verify(tedTalkBatchWriter, never()).insertAll(anyList());
     }
 
     // Empty File
@@ -0,0 +1,89 @@
+package com.tedtalks.service;
+
+import com.tedtalks.exception.ImportInProgressException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(ImportCoordinator.class)
+class ImportCoordinatorTest {
+
+    @Autowired
+    private ImportCoordinator importCoordinator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Outside a transaction the lease is held until closed; meanwhile another import gives up after its wait
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testAcquireLease_ExcludesOtherImports() {
+        ImportCoordinator otherNode = coordinator(Duration.ofMinutes(10));
+        try (ImportCoordinator.Lease lease = importCoordinator.acquireLease()) {
+            assertThrows(ImportInProgressException.class, otherNode::acquireLease);
+        }
+        otherNode.acquireLease().close();
+    }
+
+    // A lease its node stopped renewing is taken over, and the old holder notices when it next renews
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testAcquireLease_TakesOverExpiredLease() throws InterruptedException {
+        ImportCoordinator shortLeases = coordinator(Duration.ofMillis(1));
+        try (ImportCoordinator.Lease stale = shortLeases.acquireLease()) {
+            Thread.sleep(10);
+            try (ImportCoordinator.Lease lease = shortLeases.acquireLease()) {
+                assertThrows(IllegalStateException.class, stale::renewIfDue);
+            }
+        }
+        importCoordinator.acquireLease().close();
+    }
+
+    // Only imports that wrote talks move the catalog version; rewrites counts those that changed stored talks
+    @Test
+    void testRecordImport() {
+        ImportCoordinator.CatalogVersion before = importCoordinator.catalogVersion();
+
+        assertEquals(before.version() + 1, importCoordinator.recordImport("a".repeat(64), ImportMode.INSERT, 2, 0, 0));
+        assertEquals(before.version() + 2, importCoordinator.recordImport("b".repeat(64), ImportMode.UPSERT, 3, 1, 5));
+        assertEquals(0, importCoordinator.recordImport("c".repeat(64), ImportMode.UPSERT, 0, 0, 4));
+
+        assertEquals(new ImportCoordinator.CatalogVersion(before.version() + 2, before.rewrites() + 1),
+                importCoordinator.catalogVersion());
+        assertTrue(importCoordinator.findRecentImport("b".repeat(64)).isPresent());
+        assertTrue(importCoordinator.findRecentImport("d".repeat(64)).isEmpty());
+        assertTrue(coordinator(Duration.ofMinutes(10)).findRecentImport("a".repeat(64)).isPresent());
+    }
+
+    // The score refresh is claimed once per day, whichever node asks first
+    @Test
+    void testClaimScoreRefresh() {
+        LocalDate today = LocalDate.of(2024, 3, 10);
+
+        assertTrue(importCoordinator.claimScoreRefresh(today));
+        assertFalse(coordinator(Duration.ofMinutes(10)).claimScoreRefresh(today));
+        assertFalse(importCoordinator.claimScoreRefresh(today.minusDays(1)));
+        assertTrue(importCoordinator.claimScoreRefresh(today.plusDays(1)));
+    }
+
+    private ImportCoordinator coordinator(Duration leaseDuration) {
+        return new ImportCoordinator(jdbcTemplate, transactionManager, leaseDuration, Duration.ZERO, Duration.ofHours(24));
+    }
+}
@@ -0,0 +1,75 @@
+package com.tedtalks.service;
+
+import com.tedtalks.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ImportJobServiceTest {
+
+    private CsvImportService csvImportService;
+    private ImportJobService importJobService;
+    private final MockMultipartFile file = new MockMultipartFile("file", "tedtalks.csv", "text/csv",
+            "title,author,views,likes,date,link\nAI Future,John Doe,1000000,50000,January 2022,https://ted.com/ai_future"
+                    .getBytes(StandardCharsets.UTF_8));
+
+    @BeforeEach
+    void setUp() {
+        csvImportService = mock(CsvImportService.class);
+        importJobService = new ImportJobService(csvImportService, new SyncTaskExecutor(), Duration.ofHours(1));
+    }
+
+    @Test
+    void testSubmit_Completed() throws IOException {
+        when(csvImportService.importCsv(any(InputStream.class), any(), any())).thenReturn(1);
+
+        ImportJob job = importJobService.submit(file);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertTrue(importJobService.getJob(job.getId()).isPresent());
+    }
+
+    @Test
+    void testSubmit_ValidationFailed() throws IOException {
+        List<Map<String, Object>> errors = List.of(Map.of("row", 2, "error", "Missing required fields."));
+        when(csvImportService.importCsv(any(InputStream.class), any(), any())).thenThrow(new BadRequestException("CSV Validation Failed", errors));
+
+        ImportJob job = importJobService.submit(file);
+
+        assertEquals(ImportJob.Status.FAILED, job.getStatus());
+        assertEquals(errors, job.getErrors());
+    }
+
+    // A failed copy of the upload leaves no temp file behind
+    @Test
+    void testSubmit_TransferFailed() throws IOException {
+        MultipartFile brokenFile = mock(MultipartFile.class);
+        Path[] target = new Path[1];
+        doAnswer(invocation -> {
+            target[0] = invocation.getArgument(0);
+            throw new IOException("No space left on device");
+        }).when(brokenFile).transferTo(any(Path.class));
+
+        assertThrows(IOException.class, () -> importJobService.submit(brokenFile));
+
+        assertTrue(Files.notExists(target[0]));
+        verifyNoInteractions(csvImportService);
+    }
+}
@@ -0,0 +1,107 @@
+package com.tedtalks.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tedtalks.config.CacheConfig;
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.repository.TedTalksRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+class LeaderboardCacheTest {
+    private static final BigDecimal WEIGHT = new BigDecimal("0.25");
+
+    @Autowired
+    private TedTalksService tedTalksService;
+
+    @Autowired
+    private TedTalksRepository tedTalksRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        tedTalksRepository.save(talk("First", 1_000));
+        clearCaches();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tedTalksRepository.deleteAll();
+        clearCaches();
+    }
+
+    @Test
+    void testRepeatedCallsAreServedFromCache() {
+        CacheStats before = nativeCache(CacheConfig.MOST_VIEWED).stats();
+        TedTalk first = tedTalksService.getMostInfluentialByViews();
+        TedTalk second = tedTalksService.getMostInfluentialByViews();
+
+        CacheStats stats = nativeCache(CacheConfig.MOST_VIEWED).stats().minus(before);
+        assertSame(first, second);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    void testEntriesAreKeyedByWeights() {
+        CacheStats before = nativeCache(CacheConfig.MOST_INFLUENTIAL).stats();
+        tedTalksService.getMostInfluentialSpeaker(WEIGHT, WEIGHT, WEIGHT, WEIGHT);
+        tedTalksService.getMostInfluentialSpeaker(WEIGHT, WEIGHT, WEIGHT, BigDecimal.ONE);
+        tedTalksService.getMostInfluentialSpeaker(WEIGHT, WEIGHT, WEIGHT, WEIGHT);
+
+        assertEquals(2, nativeCache(CacheConfig.MOST_INFLUENTIAL).estimatedSize());
+        assertEquals(1, nativeCache(CacheConfig.MOST_INFLUENTIAL).stats().minus(before).hitCount());
+    }
+
+    @Test
+    void testImportClearsCachedAnswers() {
+        assertEquals("First", tedTalksService.getMostInfluentialByViews().getTitle());
+        tedTalksRepository.save(talk("Second", 5_000));
+
+        assertEquals("First", tedTalksService.getMostInfluentialByViews().getTitle());
+        eventPublisher.publishEvent(new TalksImportedEvent(1));
+
+        assertEquals("Second", tedTalksService.getMostInfluentialByViews().getTitle());
+    }
+
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> {
+            nativeCache(name).invalidateAll();
+            nativeCache(name).cleanUp();
+        });
+    }
+
+    private TedTalk talk(String title, long views) {
+        return tedTalksService.applyScoreComponents(TedTalk.builder()
+                .title(title)
+                .author("Author of " + title)
+                .views(BigInteger.valueOf(views))
+                .likes(BigInteger.valueOf(10))
+                .date(LocalDate.of(2020, 1, 1))
+                .link("https://ted.com/talks/" + title)
+                .build());
+    }
+}
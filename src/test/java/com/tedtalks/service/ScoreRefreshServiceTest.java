@@ -0,0 +1,67 @@
+package com.tedtalks.service;
+
+import com.tedtalks.exception.ImportInProgressException;
+import com.tedtalks.repository.TedTalkBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ScoreRefreshServiceTest {
+
+    private TedTalkBatchWriter tedTalkBatchWriter;
+    private ImportCoordinator importCoordinator;
+    private ImportCoordinator.Lease lease;
+    private List<Object> events;
+    private ScoreRefreshService scoreRefreshService;
+
+    @BeforeEach
+    void setUp() {
+        tedTalkBatchWriter = mock(TedTalkBatchWriter.class);
+        importCoordinator = mock(ImportCoordinator.class);
+        lease = mock(ImportCoordinator.Lease.class);
+        when(importCoordinator.acquireLease()).thenReturn(lease);
+        events = new ArrayList<>();
+        scoreRefreshService = new ScoreRefreshService(tedTalkBatchWriter, importCoordinator, events::add);
+    }
+
+    // The first node to claim the day refreshes under the lease and tells the other nodes through the catalog version
+    @Test
+    void testRefresh_UpdatesRatesAndBumpsCatalogVersion() {
+        when(importCoordinator.claimScoreRefresh(any())).thenReturn(true);
+        when(tedTalkBatchWriter.refreshScoreComponents(LocalDate.now())).thenReturn(3);
+        when(importCoordinator.bumpCatalogVersion()).thenReturn(8L);
+
+        assertEquals(3, scoreRefreshService.refreshScoreComponents());
+
+        assertEquals(List.of(new TalksImportedEvent(0, 0, 8)), events);
+        verify(lease).close();
+    }
+
+    // Another node or an earlier start already refreshed today
+    @Test
+    void testRefresh_SkipsDayAlreadyClaimed() {
+        when(importCoordinator.claimScoreRefresh(any())).thenReturn(false);
+
+        assertEquals(0, scoreRefreshService.refreshScoreComponents());
+
+        verify(tedTalkBatchWriter, never()).refreshScoreComponents(any());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testRefresh_SkipsWhileImportHoldsLease() {
+        when(importCoordinator.acquireLease()).thenThrow(new ImportInProgressException());
+
+        assertEquals(0, scoreRefreshService.refreshScoreComponents());
+
+        verify(importCoordinator, never()).claimScoreRefresh(any());
+    }
+}
@@ -0,0 +1,94 @@
+package com.tedtalks.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tedtalks.entity.TedTalk;
+import com.tedtalks.repository.TedTalkExportReader;
+import com.tedtalks.repository.TedTalksRepository;
+import com.tedtalks.util.CsvValidator;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(TedTalkExportReader.class)
+class TalkExportServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Autowired
+    private TedTalksRepository tedTalksRepository;
+
+    @Autowired
+    private TedTalkExportReader tedTalkExportReader;
+
+    private TalkExportService talkExportService;
+
+    @BeforeEach
+    void setUp() {
+        tedTalksRepository.saveAllAndFlush(List.of(
+                talk("First", "Jane Doe, PhD", LocalDate.of(2020, 1, 1)),
+                talk("Second", "John \"JD\" Doe", LocalDate.of(2021, 3, 1))));
+        talkExportService = new TalkExportService(tedTalkExportReader, objectMapper);
+    }
+
+    @Test
+    void testExportNdjson_OneTalkPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, talkExportService.export(TalkExportService.Format.NDJSON, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals("Second", second.get("title").asText());
+        assertEquals("2021-03-01", second.get("date").asText());
+        assertEquals(1000, second.get("views").asInt());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("}\n"));
+    }
+
+    @Test
+    void testExportCsv_CanBeImportedAgain() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        talkExportService.export(TalkExportService.Format.CSV, out);
+
+        List<CSVRecord> records = new ArrayList<>();
+        try (CSVParser parser = CsvValidator.openParser(new StringReader(out.toString(StandardCharsets.UTF_8)))) {
+            parser.forEach(records::add);
+        }
+        assertEquals(2, records.size());
+        assertEquals("John \"JD\" Doe", records.get(1).get("author"));
+        assertEquals("March 2021", records.get(1).get("date"));
+        List<Map<String, Object>> errors = new ArrayList<>();
+        records.forEach(record -> CsvValidator.validateFields(record, 2, errors));
+        assertTrue(errors.isEmpty(), errors::toString);
+    }
+
+    private TedTalk talk(String title, String author, LocalDate date) {
+        return TedTalk.builder()
+                .title(title)
+                .author(author)
+                .views(BigInteger.valueOf(1000))
+                .likes(BigInteger.valueOf(10))
+                .date(date)
+                .link("https://ted.com/talks/" + title)
+                .build();
+    }
+}
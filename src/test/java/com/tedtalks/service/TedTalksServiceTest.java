@@ -2,7 +2,6 @@ package com.tedtalks.service;
 
 import com.tedtalks.entity.TedTalk;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,14 +9,15 @@ import org.junit.jupiter.api.BeforeEach;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.LocalDate;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 public class TedTalksServiceTest {
 
-    @InjectMocks
     private TedTalksService tedTalksService;
 
     private TedTalk tedTalk1;
@@ -25,6 +25,8 @@ public class TedTalksServiceTest {
 
     @BeforeEach
     void setUp() {
+        tedTalksService = new TedTalksService(null, null, null, null, null, 1000);
+
         tedTalk1 = TedTalk.builder()
                 .id(1L)
                 .title("Your self-driving robotaxi is almost here")
@@ -64,6 +66,47 @@ public class TedTalksServiceTest {
     }
 
 
+    @Test
+    void testCalculateStoredInfluenceScore_MatchesCalculatedScore() {
+        BigDecimal viewsWeight = new BigDecimal("0.4");
+        BigDecimal likesWeight = new BigDecimal("0.4");
+        BigDecimal engagementWeight = new BigDecimal("0.1");
+        BigDecimal growthWeight = new BigDecimal("0.1");
+
+        BigDecimal expected = tedTalksService.calculateInfluenceScore(
+                tedTalk1, viewsWeight, likesWeight, engagementWeight, growthWeight);
+        tedTalksService.applyScoreComponents(tedTalk1);
+
+        assertEquals(expected, tedTalksService.calculateStoredInfluenceScore(
+                tedTalk1, viewsWeight, likesWeight, engagementWeight, growthWeight));
+    }
+
+    @Test
+    void testFastPath_MatchesExactArithmetic() {
+        List<BigDecimal[]> weightSets = List.of(
+                new BigDecimal[]{new BigDecimal("0.4"), new BigDecimal("0.4"), new BigDecimal("0.1"), new BigDecimal("0.1")},
+                new BigDecimal[]{new BigDecimal("0.333333"), new BigDecimal("-1.25"), new BigDecimal("2"), new BigDecimal("0.000007")});
+        long[][] counts = {{0, 0}, {1, 0}, {3, 2}, {7, 1}, {200000, 1}, {72000000, 2100000}, {999999999999L, 123456789L},
+                {Long.MAX_VALUE / 2, 17}, {1300000, 4031405795013456675L}};
+        LocalDate[] dates = {LocalDate.now(), LocalDate.now().plusMonths(2), LocalDate.of(2006, 2, 1), LocalDate.of(2024, 1, 31)};
+
+        for (long[] count : counts) {
+            for (LocalDate date : dates) {
+                TedTalk talk = TedTalk.builder()
+                        .views(BigInteger.valueOf(count[0]))
+                        .likes(BigInteger.valueOf(count[1]))
+                        .date(date)
+                        .build();
+                assertEquals(tedTalksService.calculateEngagementRateExact(talk), tedTalksService.calculateEngagementRate(talk));
+                assertEquals(tedTalksService.calculateGrowthRateExact(talk), tedTalksService.calculateGrowthRate(talk));
+                for (BigDecimal[] w : weightSets) {
+                    assertEquals(tedTalksService.calculateInfluenceScoreExact(talk, w[0], w[1], w[2], w[3]),
+                            tedTalksService.calculateInfluenceScore(talk, w[0], w[1], w[2], w[3]));
+                }
+            }
+        }
+    }
+
     @Test
     void testCalculateEngagementRate() {
         BigDecimal engagementRate = tedTalksService.calculateEngagementRate(tedTalk1);
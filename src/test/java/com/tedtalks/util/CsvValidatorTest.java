@@ -0,0 +1,76 @@
+package com.tedtalks.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvValidatorTest {
+    private static final DateTimeFormatter MONTH_YEAR = DateTimeFormatter.ofPattern("MMMM yyyy dd", Locale.ENGLISH);
+
+    // The month table accepts exactly what the "MMMM yyyy" pattern accepts
+    @Test
+    void testParseMonthYear_MatchesFormatter() {
+        List<String> inputs = List.of("January 2022", "February 2025", "September 1984", "December 0001",
+                "january 2022", "Jan 2022", "January  2022", "January 22", "January 2022 ", "Januaryx 2022",
+                "Foo 2022", "January 20a2", "January 0000", "", " ", "2022");
+        for (String input : inputs) {
+            LocalDate expected;
+            try {
+                expected = LocalDate.parse(input + " 01", MONTH_YEAR);
+            } catch (Exception e) {
+                expected = null;
+            }
+            assertEquals(expected, CsvValidator.parseMonthYear(input), input);
+        }
+    }
+
+    // The digit scan agrees with new BigInteger(value.trim()) on validity and sign
+    @Test
+    void testCheckNumber_MatchesBigInteger() {
+        List<String> inputs = List.of("0", "1000000", " 42 ", "+7", "-5", "-0", "-000", "12345678901234567890123",
+                "", "-", "+", "1.5", "1e6", "12a", "--1", "1 000", "١٢");
+        for (String input : inputs) {
+            CsvErrorCode expected;
+            try {
+                expected = new BigInteger(input.trim()).signum() < 0 ? CsvErrorCode.NEGATIVE_NUMBER : null;
+            } catch (NumberFormatException e) {
+                expected = CsvErrorCode.INVALID_NUMBER;
+            }
+            assertEquals(expected, CsvValidator.checkNumber(input), input);
+        }
+    }
+
+    // Errors read as the maps clients already receive, plus the code
+    @Test
+    void testCsvError_MapView() {
+        Map<String, Object> error = CsvError.of(4, "views", "abc", CsvErrorCode.INVALID_NUMBER);
+
+        assertEquals(Map.of("row", 4, "column", "views", "value", "abc",
+                "error", "Invalid number format.", "code", "INVALID_NUMBER"), error);
+        assertEquals("invalid_number", CsvValidator.errorType(error));
+        assertEquals(Map.of("row", 2, "error", "Missing required fields.", "code", "MISSING_FIELDS"),
+                CsvValidator.missingFieldsError(2));
+        assertEquals("other", CsvValidator.errorType(Map.of("error", "Something else")));
+    }
+
+    // Only the first errors are kept, all are counted
+    @Test
+    void testCsvErrorList_Cap() {
+        CsvErrorList errors = new CsvErrorList(2);
+        errors.add(CsvError.of(2, CsvErrorCode.MISSING_FIELDS));
+        errors.add(CsvError.of(3, "date", "x", CsvErrorCode.INVALID_DATE));
+        errors.add(CsvError.of(4, "date", "y", CsvErrorCode.INVALID_DATE));
+
+        assertEquals(2, errors.size());
+        assertEquals(3, errors.totalCount());
+        assertEquals(Map.of("missing_fields", 1L, "invalid_date", 2L), errors.countsByType());
+        assertThrows(IllegalArgumentException.class, () -> new CsvErrorList(0));
+    }
+}